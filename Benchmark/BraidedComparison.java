@@ -0,0 +1,93 @@
+package Benchmark;
+
+import Generation.Braider;
+import Generation.PassageTree;
+import Maze.Model;
+import Solving.Strategy;
+
+/**
+ * Compares the solvers on braided mazes, where dead ends were removed and
+ * the loops give a search more than one way to the exit. The object based
+ * A* of {@code Fugitive} (A_STAR_NODES) is the baseline. Before timing,
+ * every solver is checked to find a path of the same length as a
+ * breadth-first search, except the wall follower, which does not promise
+ * shortest paths. The size column shows the side of the square maze and
+ * the fraction of removed dead ends.
+ * <p>
+ * Usage: {@code BraidedComparison [sizes=501,1001] [braids=0,0.25,0.5,1] [warmups=2]
+ * [iterations=3] [time=500] [forks=3]}
+ */
+public class BraidedComparison
+{
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception
+    {
+        var sizes = new int[]{501, 1001};
+        var braids = new double[]{0, 0.25, 0.5, 1};
+        int warmups = 2;
+        int iterations = 3;
+        long time = 500;
+        int forks = 3;
+        for (var arg : args)
+        {
+            var pair = arg.split("=", 2);
+            switch (pair[0])
+            {
+                case "sizes":
+                    var values = pair[1].split(",");
+                    sizes = new int[values.length];
+                    for (int i = 0; i < values.length; i++)
+                        sizes[i] = Integer.parseInt(values[i]);
+                    break;
+                case "braids":
+                    var fractions = pair[1].split(",");
+                    braids = new double[fractions.length];
+                    for (int i = 0; i < fractions.length; i++)
+                        braids[i] = Double.parseDouble(fractions[i]);
+                    break;
+                case "warmups":
+                    warmups = Integer.parseInt(pair[1]);
+                    break;
+                case "iterations":
+                    iterations = Integer.parseInt(pair[1]);
+                    break;
+                case "time":
+                    time = Long.parseLong(pair[1]);
+                    break;
+                case "forks":
+                    forks = Integer.parseInt(pair[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        var harness = new Harness(BraidedComparison.class, args, warmups, iterations, time, forks);
+        for (var size : sizes)
+        {
+            for (var braid : braids)
+                run(harness, size, braid);
+        }
+    }
+
+    private static void run(Harness harness, int size, double braid) throws Exception
+    {
+        for (var strategy : Strategy.values())
+        {
+            if (strategy == Strategy.A_STAR_NODES && (long) size * size > 4_000_000)
+                continue;
+            harness.run(strategy.name().toLowerCase(), size + "/" + braid, () -> {
+                var maze = new Model(size, size, new Braider(new PassageTree(size, size, SEED), size, size, braid, SEED));
+                var grid = maze.getGrid();
+                var start = maze.getEntrance().getRow() * size + maze.getEntrance().getColumn();
+                var end = maze.getExit().getRow() * size + maze.getExit().getColumn();
+                var shortest = Strategy.BFS.solve(grid, start, end).length;
+                var finder = strategy.finder(grid);
+                var length = finder.search(start, end).length;
+                if (length != shortest && strategy != Strategy.WALL_FOLLOWER)
+                    throw new IllegalStateException(strategy + " found a path of " + length + " squares instead of " + shortest);
+                return () -> finder.search(start, end).length;
+            });
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package Benchmark;
+
+import Maze.PackedGrid;
+
+public class FootprintReport                    //Compares the memory footprint of the old Cell[][] layout of a maze with the packed grid.
+{                                               //The old layout is estimated for a 64-bit JVM with compressed references.
+
+    private static final int[] SIZES = {101, 1001, 5001, 10001, 20001};
+
+    private static final int HEADER = 12;       //The header of an object.
+    private static final int ARRAY_HEADER = 16; //The header of an array including its length.
+    private static final int REFERENCE = 4;     //A compressed reference.
+
+    public static void main(String[] args)
+    {
+        System.out.printf("%-13s %16s %16s %10s%n", "size", "Cell[][]", "PackedGrid", "ratio");
+        for (var size : SIZES)
+        {
+            var old = cellLayout(size, size);
+            var packed = packedLayout(size, size);
+            System.out.printf("%-13s %16s %16s %9.0fx%n",
+                size + "x" + size, format(old), format(packed), (double) old / packed);
+        }
+    }
+
+    static long cellLayout(int height, int width)           //One Cell object (header, row, column, type) per square plus the row arrays.
+    {
+        long cell = align(HEADER + 4 + 4 + REFERENCE);
+        long row = align(ARRAY_HEADER + (long) REFERENCE * width);
+        long outer = align(ARRAY_HEADER + (long) REFERENCE * height);
+        return outer + height * (row + width * cell);
+    }
+
+    static long packedLayout(int height, int width)         //Only allocates small grids, larger ones are calculated.
+    {
+        if ((long) height * width <= 1_000_000)
+            return new PackedGrid(height, width).sizeInBytes();
+        return ARRAY_HEADER + ((long) height * width * 2 + 63) / 64 * 8;
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static String format(long bytes)
+    {
+        if (bytes >= 1L << 30)
+            return String.format("%.2f GiB", bytes / (double) (1L << 30));
+        if (bytes >= 1L << 20)
+            return String.format("%.2f MiB", bytes / (double) (1L << 20));
+        return String.format("%.2f KiB", bytes / (double) (1L << 10));
+    }
+}
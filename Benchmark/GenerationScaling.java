@@ -0,0 +1,43 @@
+package Benchmark;
+
+import Generation.PassageTree;
+import Generation.TiledPassageTree;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class GenerationScaling                  //Times the tiled generator on pools of 1 to N threads against the sequential PassageTree.
+{                                               //Usage: GenerationScaling [size] [max threads] [repetitions]
+
+    public static void main(String[] args)
+    {
+        var size = args.length > 0 ? Integer.parseInt(args[0]) : 4001;
+        var maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        var sequential = best(repetitions, () -> new PassageTree(size, size, 42).generate((row, column) -> { }));
+        System.out.printf("%dx%d, %d cores available%n", size, size, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %10.0f ms%n", "sequential", sequential);
+        for (int threads = 1; threads <= maxThreads; threads++)
+        {
+            var pool = new ForkJoinPool(threads);
+            var time = best(repetitions, () ->
+                new TiledPassageTree(size, size, 42, TiledPassageTree.DEFAULT_TILE_SIZE, pool)
+                    .generate((row, column) -> { }));
+            pool.shutdown();
+            System.out.printf("%-12s %10.0f ms %8.2fx%n", threads + " threads", time, sequential / time);
+        }
+    }
+
+    private static double best(int repetitions, Runnable task)     //The best wall-clock time in milliseconds after one warm-up run.
+    {
+        task.run();
+        var best = Double.MAX_VALUE;
+        for (int i = 0; i < repetitions; i++)
+        {
+            var start = System.nanoTime();
+            task.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,289 @@
+package Benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small benchmark runner in the spirit of JMH: warm-up iterations,
+ * measured iterations of a fixed duration and a report of the average
+ * time per operation with its error, together with the allocation rate and
+ * the garbage collections, like JMH's GC profiler. Results of operations
+ * are consumed by {@link #consume(long)} so the JIT cannot drop them.
+ * Allocations are summed over all live threads of the JVM, so work done on
+ * fork-join pools and helper threads is included; a thread that ends
+ * during an iteration takes its count with it.
+ * <p>
+ * Like JMH, every benchmark runs in fresh JVMs, forks of the calling main
+ * class with the same arguments and JVM options, so the JIT profiles and
+ * the heap of one benchmark do not affect the next. The setup of a
+ * benchmark runs in the fork only. The error is the half-width of the
+ * 99.9% confidence interval of the mean over the measured iterations of
+ * all forks, by Student's t-distribution as in JMH. With no forks the
+ * benchmarks run in the calling JVM one after another.
+ */
+class Harness
+{
+    interface Operation
+    {
+        long run() throws Exception;    //Returns any value derived from the result.
+    }
+
+    interface Setup
+    {
+        Operation prepare() throws Exception;   //Builds the fixtures of a benchmark and returns the operation to time.
+    }
+
+    private static final String FORK_PROPERTY = "harness.fork";    //The number of the benchmark a forked JVM runs.
+    private static final String RESULT_PREFIX = "harness.result ";
+    private static final double[] T_999 = {                         //The 0.9995 quantiles of Student's t for 1 to 30 degrees of freedom.
+        636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+        4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+        3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646};
+
+    private static volatile long sink;
+
+    private final Class<?> main;
+    private final String[] arguments;
+    private final int warmups;
+    private final int iterations;
+    private final long iterationNanos;
+    private final int forks;
+    private final int forked = Integer.getInteger(FORK_PROPERTY, -1);  //-1 in the JVM that starts the forks.
+    private int benchmarks;                                             //The number of benchmarks met so far.
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    Harness(Class<?> main, String[] arguments, int warmups, int iterations, long iterationMillis, int forks)
+    {
+        if (forks < 0)
+            throw new IllegalArgumentException("The number of forks cannot be negative");
+        this.main = main;
+        this.arguments = arguments;
+        this.warmups = warmups;
+        this.iterations = iterations;
+        iterationNanos = iterationMillis * 1_000_000;
+        this.forks = forks;
+        if (forked < 0)
+            header();
+    }
+
+    private static void header()
+    {
+        System.out.printf("%-28s %12s %12s %10s %12s %14s %10s %10s%n",
+            "benchmark", "size", "ms/op", "error", "ops/s", "alloc B/op", "alloc MB/s", "gc count");
+    }
+
+    static void consume(long value)
+    {
+        sink ^= value;
+    }
+
+    /**
+     * Runs one benchmark and prints its line. In the JVM that starts the
+     * forks the setup is not called at all, and a fork skips every
+     * benchmark but its own and exits after it.
+     */
+    void run(String name, String size, Setup setup) throws Exception
+    {
+        var number = benchmarks++;
+        if (forked >= 0)
+        {
+            if (number == forked)
+            {
+                System.out.println(RESULT_PREFIX + measure(setup.prepare()));
+                System.out.flush();
+                System.exit(0);
+            }
+            return;
+        }
+        var results = new ArrayList<Result>();
+        if (forks == 0)
+            results.add(measure(setup.prepare()));
+        for (int i = 0; i < forks; i++)
+            results.add(fork(name, number));
+        report(name, size, results);
+    }
+
+    private Result measure(Operation operation) throws Exception
+    {
+        for (int i = 0; i < warmups; i++)
+            iterate(operation);
+
+        var result = new Result();
+        result.samples = new double[iterations];
+        var gcBefore = gcCount();
+        for (int i = 0; i < iterations; i++)
+        {
+            var allocatedBefore = allocations();
+            var start = System.nanoTime();
+            var operations = iterate(operation);
+            var nanos = System.nanoTime() - start;
+            result.allocated += allocatedSince(allocatedBefore);
+            result.operations += operations;
+            result.nanos += nanos;
+            result.samples[i] = nanos / 1e6 / operations;
+        }
+        result.gcs = gcCount() - gcBefore;
+        return result;
+    }
+
+    private Result fork(String name, int number) throws IOException, InterruptedException
+    {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (var option : ManagementFactory.getRuntimeMXBean().getInputArguments())
+        {
+            if (!option.startsWith("-D" + FORK_PROPERTY + "="))
+                command.add(option);
+        }
+        command.add("-D" + FORK_PROPERTY + "=" + number);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(main.getName());
+        command.addAll(List.of(arguments));
+
+        var process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Result result = null;
+        try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream())))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.startsWith(RESULT_PREFIX))
+                    result = Result.parse(line.substring(RESULT_PREFIX.length()));
+            }
+        }
+        var status = process.waitFor();
+        if (status != 0 || result == null)
+            throw new IllegalStateException("The fork of " + name + " failed with the exit status " + status);
+        return result;
+    }
+
+    private static void report(String name, String size, List<Result> results)
+    {
+        var samples = new ArrayList<Double>();
+        long operations = 0;
+        long nanos = 0;
+        long allocated = 0;
+        long gcs = 0;
+        for (var result : results)
+        {
+            for (var sample : result.samples)
+                samples.add(sample);
+            operations += result.operations;
+            nanos += result.nanos;
+            allocated += result.allocated;
+            gcs += result.gcs;
+        }
+        var mean = 0.0;
+        for (var sample : samples)
+            mean += sample;
+        mean /= samples.size();
+        var error = Double.NaN;                 //Unknown with a single sample, like in JMH.
+        if (samples.size() > 1)
+        {
+            var squares = 0.0;
+            for (var sample : samples)
+                squares += (sample - mean) * (sample - mean);
+            var deviation = Math.sqrt(squares / (samples.size() - 1));
+            error = t999(samples.size() - 1) * deviation / Math.sqrt(samples.size());
+        }
+        System.out.printf("%-28s %12s %12.3f %10.3f %12.2f %14d %10.1f %10d%n",
+            name, size, mean, error, 1000 / mean, allocated / operations,
+            allocated / 1e6 / (nanos / 1e9), gcs);
+    }
+
+    private static double t999(int degrees)
+    {
+        if (degrees <= T_999.length)
+            return T_999[degrees - 1];
+        if (degrees <= 40)
+            return 3.551;
+        if (degrees <= 60)
+            return 3.460;
+        return degrees <= 120 ? 3.373 : 3.291;
+    }
+
+    private long iterate(Operation operation) throws Exception     //Runs the operation at least once and until the iteration time passes.
+    {
+        long count = 0;
+        var end = System.nanoTime() + iterationNanos;
+        do
+        {
+            consume(operation.run());
+            count++;
+        } while (System.nanoTime() < end);
+        return count;
+    }
+
+    private Map<Long, Long> allocations()       //The bytes allocated so far by every live thread, by the thread id.
+    {
+        var ids = threads.getAllThreadIds();
+        var bytes = threads.getThreadAllocatedBytes(ids);
+        var result = new HashMap<Long, Long>();
+        for (int i = 0; i < ids.length; i++)
+        {
+            if (bytes[i] >= 0)
+                result.put(ids[i], bytes[i]);
+        }
+        return result;
+    }
+
+    private long allocatedSince(Map<Long, Long> before)    //Threads started since count from zero, ended ones are lost.
+    {
+        long total = 0;
+        for (var entry : allocations().entrySet())
+            total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        return total;
+    }
+
+    private long gcCount()
+    {
+        long count = 0;
+        for (var collector : collectors)
+            count += Math.max(0, collector.getCollectionCount());
+        return count;
+    }
+
+    private static class Result                 //The measured iterations of one JVM. Passed from a fork as one line of text.
+    {
+        double[] samples;                       //The time per operation of every iteration in milliseconds.
+        long operations;
+        long nanos;
+        long allocated;
+        long gcs;
+
+        @Override
+        public String toString()
+        {
+            var line = new StringBuilder().append(operations).append(' ').append(nanos).append(' ')
+                                          .append(allocated).append(' ').append(gcs);
+            for (var sample : samples)
+                line.append(' ').append(sample);
+            return line.toString();
+        }
+
+        static Result parse(String line)
+        {
+            var fields = line.trim().split(" ");
+            var result = new Result();
+            result.operations = Long.parseLong(fields[0]);
+            result.nanos = Long.parseLong(fields[1]);
+            result.allocated = Long.parseLong(fields[2]);
+            result.gcs = Long.parseLong(fields[3]);
+            result.samples = new double[fields.length - 4];
+            for (int i = 4; i < fields.length; i++)
+                result.samples[i - 4] = Double.parseDouble(fields[i]);
+            return result;
+        }
+    }
+}
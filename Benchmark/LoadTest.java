@@ -0,0 +1,173 @@
+package Benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A load generator for the maze service started with {@code Main --server}
+ * (and {@code -Dsun.net.httpserver.nodelay=true}). It generates a pool of
+ * mazes and then lets a number of clients send solve and render requests
+ * for random mazes of the pool as fast as the service answers. Every solve
+ * request asks for the path between two random cells, so it is solved
+ * instead of being answered from the solution cache of the service.
+ * Reports the throughput and the p50, p99 and maximum latency of every
+ * kind of request.
+ * <p>
+ * Usage: {@code LoadTest [port=8080] [clients=32] [requests=200] [mazes=16]
+ * [size=201] [strategy=A_STAR]}, where requests is the number of requests
+ * of every client.
+ */
+public class LoadTest
+{
+    public static void main(String[] args) throws Exception
+    {
+        int port = 8080;
+        int clients = 32;
+        int requests = 200;
+        int mazes = 16;
+        int size = 201;
+        var strategy = "A_STAR";
+        for (var arg : args)
+        {
+            var pair = arg.split("=", 2);
+            switch (pair[0])
+            {
+                case "port":
+                    port = Integer.parseInt(pair[1]);
+                    break;
+                case "clients":
+                    clients = Integer.parseInt(pair[1]);
+                    break;
+                case "requests":
+                    requests = Integer.parseInt(pair[1]);
+                    break;
+                case "mazes":
+                    mazes = Integer.parseInt(pair[1]);
+                    break;
+                case "size":
+                    size = Integer.parseInt(pair[1]);
+                    break;
+                case "strategy":
+                    strategy = pair[1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        var base = "http://localhost:" + port + "/mazes";
+        var client = HttpClient.newHttpClient();
+
+        var ids = new String[mazes];
+        var generate = new long[mazes];
+        for (int i = 0; i < mazes; i++)
+        {
+            var begin = System.nanoTime();
+            ids[i] = send(client, HttpRequest.newBuilder(URI.create(base + "?height=" + size + "&width=" + size + "&seed=" + i))
+                                             .POST(HttpRequest.BodyPublishers.noBody()), 201);
+            generate[i] = System.nanoTime() - begin;
+        }
+
+        var solve = new long[clients * requests];
+        var render = new long[clients * requests];
+        var solveCount = new int[clients];
+        var pool = Executors.newFixedThreadPool(clients);
+        var tasks = new ArrayList<Future<?>>();
+        var begin = System.nanoTime();
+        final var finalStrategy = strategy;
+        final var finalRequests = requests;
+        final var cells = (size - 1) / 2;                  //Cells are the squares with both coordinates odd.
+        for (int c = 0; c < clients; c++)
+        {
+            final var offset = c * requests;
+            final var index = c;
+            tasks.add(pool.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int r = 0; r < finalRequests; r++)
+                {
+                    var id = ids[random.nextInt(ids.length)];
+                    var solved = random.nextBoolean();
+                    var uri = solved ? base + "/" + id + "/solution?strategy=" + finalStrategy
+                                       + "&from=" + (2 * random.nextInt(cells) + 1) + "," + (2 * random.nextInt(cells) + 1)
+                                       + "&to=" + (2 * random.nextInt(cells) + 1) + "," + (2 * random.nextInt(cells) + 1)
+                                     : base + "/" + id;
+                    var start = System.nanoTime();
+                    send(client, HttpRequest.newBuilder(URI.create(uri)).GET(), 200);
+                    var latency = System.nanoTime() - start;
+                    if (solved)
+                        solve[offset + solveCount[index]++] = latency;
+                    else
+                        render[offset + r - solveCount[index]] = latency;
+                }
+                return null;
+            }));
+        }
+        for (var task : tasks)
+            task.get();
+        var elapsed = System.nanoTime() - begin;
+        shutdown(pool);
+
+        var solves = collect(solve, solveCount, requests, true);
+        var renders = collect(render, solveCount, requests, false);
+        System.out.printf("%d clients, %d requests, %.0f requests/s%n", clients, clients * requests,
+                          clients * (double) requests / (elapsed / 1e9));
+        System.out.printf("%-10s %8s %10s %10s %10s%n", "request", "count", "p50 ms", "p99 ms", "max ms");
+        report("generate", generate);
+        report("solve", solves);
+        report("render", renders);
+    }
+
+    private static String send(HttpClient client, HttpRequest.Builder request, int status) throws Exception
+    {
+        var response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != status)
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + ": " + response.body());
+        return response.body().trim();
+    }
+
+    private static long[] collect(long[] latencies, int[] solveCount, int requests, boolean solved)  //Joins the filled parts of the
+    {                                                                                                  //per-client ranges.
+        var count = 0;
+        for (var solves : solveCount)
+            count += solved ? solves : requests - solves;
+        var result = new long[count];
+        var position = 0;
+        for (int c = 0; c < solveCount.length; c++)
+        {
+            var length = solved ? solveCount[c] : requests - solveCount[c];
+            System.arraycopy(latencies, c * requests, result, position, length);
+            position += length;
+        }
+        return result;
+    }
+
+    private static void report(String name, long[] latencies)
+    {
+        if (latencies.length == 0)
+            return;
+        Arrays.sort(latencies);
+        System.out.printf("%-10s %8d %10.3f %10.3f %10.3f%n", name, latencies.length,
+                          percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                          latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double fraction)     //The nearest-rank percentile.
+    {
+        var rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static void shutdown(ExecutorService pool) throws InterruptedException
+    {
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,49 @@
+package Benchmark;
+
+import Maze.Model;
+import Solving.Bfs;
+import Solving.ParallelBfs;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelBfsScaling                 //Times ParallelBfs on pools of 1 to N threads against the sequential Bfs on the escape of one maze.
+{                                               //Usage: ParallelBfsScaling [size] [max threads] [repetitions]
+
+    public static void main(String[] args)
+    {
+        var size = args.length > 0 ? Integer.parseInt(args[0]) : 4001;
+        var maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        var maze = new Model(size, size, 42);
+        var grid = maze.getGrid();
+        var start = maze.getEntrance().getRow() * size + maze.getEntrance().getColumn();
+        var end = maze.getExit().getRow() * size + maze.getExit().getColumn();
+
+        var bfs = new Bfs(grid);
+        var sequential = best(repetitions, () -> bfs.search(start, end));
+        System.out.printf("%dx%d, %d cores available%n", size, size, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %10.0f ms%n", "sequential", sequential);
+        for (int threads = 1; threads <= maxThreads; threads++)
+        {
+            var pool = new ForkJoinPool(threads);
+            var parallel = new ParallelBfs(grid, pool);
+            var time = best(repetitions, () -> parallel.search(start, end));
+            pool.shutdown();
+            System.out.printf("%-12s %10.0f ms %8.2fx%n", threads + " threads", time, sequential / time);
+        }
+    }
+
+    private static double best(int repetitions, Runnable task)     //The best wall-clock time in milliseconds after one warm-up run.
+    {
+        task.run();
+        var best = Double.MAX_VALUE;
+        for (int i = 0; i < repetitions; i++)
+        {
+            var start = System.nanoTime();
+            task.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,53 @@
+package Benchmark;
+
+import Maze.Model;
+import Solving.BatchSolver;
+import Solving.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class QueryThroughput                    //Measures queries per second of BatchSolver on 1 to N threads over one shared maze.
+{                                               //Usage: QueryThroughput [size] [queries] [max threads]
+
+    public static void main(String[] args)
+    {
+        var size = args.length > 0 ? Integer.parseInt(args[0]) : 1001;
+        var count = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        var maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        var maze = new Model(size, size, 42);
+        var queries = randomQueries(size, count, new Random(7));
+        System.out.printf("%dx%d, %d queries, %d cores available%n",
+            size, size, count, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= maxThreads; threads++)
+        {
+            try (var solver = new BatchSolver(maze.getGrid(), threads))
+            {
+                solver.solve(queries);
+                var start = System.nanoTime();
+                var paths = solver.solve(queries);
+                var seconds = (System.nanoTime() - start) / 1e9;
+                long steps = 0;
+                for (var path : paths)
+                    steps += path.getSteps();
+                System.out.printf("%3d threads %12.0f queries/s %14.0f squares/s%n",
+                    threads, count / seconds, steps / seconds);
+            }
+        }
+    }
+
+    static List<Query> randomQueries(int size, int count, Random random)  //Random pairs of cells, which are passages in every generated maze.
+    {
+        var cells = (size - 1) / 2;
+        var queries = new ArrayList<Query>(count);
+        for (int i = 0; i < count; i++)
+        {
+            queries.add(new Query(
+                2 * random.nextInt(cells) + 1, 2 * random.nextInt(cells) + 1,
+                2 * random.nextInt(cells) + 1, 2 * random.nextInt(cells) + 1));
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,76 @@
+package Benchmark;
+
+import Maze.Model;
+import Solving.Strategy;
+
+/**
+ * Compares the solvers on the escape of mazes of different sizes and shapes:
+ * square, wide and tall. Every finder is created once per maze and reused,
+ * like a worker of a batch would do.
+ * <p>
+ * Usage: {@code SolverComparison [sizes=101,1001,2001] [warmups=2] [iterations=3] [time=500]
+ * [forks=3]}
+ */
+public class SolverComparison
+{
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception
+    {
+        var sizes = new int[]{101, 1001, 2001};
+        int warmups = 2;
+        int iterations = 3;
+        long time = 500;
+        int forks = 3;
+        for (var arg : args)
+        {
+            var pair = arg.split("=", 2);
+            switch (pair[0])
+            {
+                case "sizes":
+                    var values = pair[1].split(",");
+                    sizes = new int[values.length];
+                    for (int i = 0; i < values.length; i++)
+                        sizes[i] = Integer.parseInt(values[i]);
+                    break;
+                case "warmups":
+                    warmups = Integer.parseInt(pair[1]);
+                    break;
+                case "iterations":
+                    iterations = Integer.parseInt(pair[1]);
+                    break;
+                case "time":
+                    time = Long.parseLong(pair[1]);
+                    break;
+                case "forks":
+                    forks = Integer.parseInt(pair[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        var harness = new Harness(SolverComparison.class, args, warmups, iterations, time, forks);
+        for (var size : sizes)
+        {
+            run(harness, size, size);
+            run(harness, Math.max(3, size / 8), size * 8);
+            run(harness, size * 8, Math.max(3, size / 8));
+        }
+    }
+
+    private static void run(Harness harness, int height, int width) throws Exception
+    {
+        for (var strategy : Strategy.values())
+        {
+            if (strategy == Strategy.A_STAR_NODES && (long) height * width > 4_000_000)
+                continue;
+            harness.run(strategy.name().toLowerCase(), height + "x" + width, () -> {
+                var maze = new Model(height, width, SEED);
+                var start = maze.getEntrance().getRow() * width + maze.getEntrance().getColumn();
+                var end = maze.getExit().getRow() * width + maze.getExit().getColumn();
+                var finder = strategy.finder(maze.getGrid());
+                return () -> finder.search(start, end).length;
+            });
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package Benchmark;
+
+import Generation.PassageTree;
+import Generation.TiledPassageTree;
+import Maze.BinaryFormat;
+import Maze.Model;
+import Solving.Strategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+/**
+ * Benchmarks generation, solving, serialization round-trips and rendering.
+ * All mazes are generated from fixed seeds, so runs are comparable.
+ * <p>
+ * Usage: {@code Suite [sizes=101,1001,5001,10001] [filter=name] [warmups=2]
+ * [iterations=5] [time=1000] [forks=3]}, where time is the duration of an
+ * iteration in milliseconds, filter keeps the benchmarks whose name
+ * contains it and forks is the number of JVMs per benchmark, 0 to run all
+ * of them in this one.
+ */
+public class Suite
+{
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception
+    {
+        var sizes = new int[]{101, 1001, 5001, 10001};
+        var filter = "";
+        int warmups = 2;
+        int iterations = 5;
+        long time = 1000;
+        int forks = 3;
+        for (var arg : args)
+        {
+            var pair = arg.split("=", 2);
+            switch (pair[0])
+            {
+                case "sizes":
+                    var values = pair[1].split(",");
+                    sizes = new int[values.length];
+                    for (int i = 0; i < values.length; i++)
+                        sizes[i] = Integer.parseInt(values[i]);
+                    break;
+                case "filter":
+                    filter = pair[1];
+                    break;
+                case "warmups":
+                    warmups = Integer.parseInt(pair[1]);
+                    break;
+                case "iterations":
+                    iterations = Integer.parseInt(pair[1]);
+                    break;
+                case "time":
+                    time = Long.parseLong(pair[1]);
+                    break;
+                case "forks":
+                    forks = Integer.parseInt(pair[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        var harness = new Harness(Suite.class, args, warmups, iterations, time, forks);
+        for (var size : sizes)
+            run(harness, size, filter);
+    }
+
+    private static void run(Harness harness, int size, String filter) throws Exception
+    {
+        var label = size + "x" + size;
+        if ("generate".contains(filter))
+            harness.run("generate", label, () -> () -> new Model(size, size, SEED).getHeight());
+        if ("generate.passageTree".contains(filter))
+            harness.run("generate.passageTree", label, () -> () -> {
+                long[] carved = {0};
+                new PassageTree(size, size, SEED).generate((row, column) -> carved[0] += row ^ column);
+                return carved[0];
+            });
+        if ("generate.tiled".contains(filter))
+            harness.run("generate.tiled", label, () -> () -> {
+                long[] carved = {0};
+                new TiledPassageTree(size, size, SEED).generate((row, column) -> carved[0] += row ^ column);
+                return carved[0];
+            });
+        for (var strategy : Strategy.values())
+        {
+            var name = "solve." + strategy.name().toLowerCase();
+            if (name.contains(filter) && (strategy != Strategy.A_STAR_NODES || size <= 5001))
+                harness.run(name, label, () -> {
+                    var maze = new Model(size, size, SEED);
+                    return () -> strategy.create(maze.getGrid(), maze.getEntrance(), maze.getExit()).findPath().getLength();
+                });
+        }
+        if ("text.export".contains(filter))
+            harness.run("text.export", label, () -> {
+                var maze = new Model(size, size, SEED);
+                return () -> maze.export().length();
+            });
+        if ("text.load".contains(filter))
+            harness.run("text.load", label, () -> {
+                var text = new Model(size, size, SEED).export();
+                return () -> Model.load(text).getHeight();
+            });
+        if ("binary.write".contains(filter))
+            harness.run("binary.write", label, () -> {
+                var maze = new Model(size, size, SEED);
+                var length = binary(maze).length;
+                return () -> {
+                    var out = new ByteArrayOutputStream(length);
+                    BinaryFormat.write(maze, Channels.newChannel(out));
+                    return out.size();
+                };
+            });
+        if ("binary.read".contains(filter))
+            harness.run("binary.read", label, () -> {
+                var bytes = binary(new Model(size, size, SEED));
+                return () -> BinaryFormat.read(Channels.newChannel(new ByteArrayInputStream(bytes))).getHeight();
+            });
+        if ("render".contains(filter))
+            harness.run("render", label, () -> {
+                var maze = new Model(size, size, SEED);
+                return () -> {
+                    maze.render(OutputStream.nullOutputStream(), null);
+                    return 0;
+                };
+            });
+    }
+
+    private static byte[] binary(Model maze) throws IOException
+    {
+        var out = new ByteArrayOutputStream();
+        BinaryFormat.write(maze, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+}
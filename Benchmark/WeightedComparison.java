@@ -0,0 +1,90 @@
+package Benchmark;
+
+import Generation.Braider;
+import Generation.PassageTree;
+import Maze.Model;
+import Maze.Terrain;
+import Solving.Strategy;
+
+/**
+ * Compares the solvers that follow terrain costs on braided mazes with a
+ * random terrain: Dial's bucket queue against A* on a binary heap and the
+ * object based A* of {@code Fugitive} with its PriorityQueue. Before timing,
+ * the paths of all three are checked to cost the same.
+ * <p>
+ * Usage: {@code WeightedComparison [sizes=501,1001,2001] [braid=0.5] [maxCost=15]
+ * [warmups=2] [iterations=3] [time=500] [forks=3]}
+ */
+public class WeightedComparison
+{
+    private static final long SEED = 42;
+    private static final int PATCH = 16;                //The side of a patch of similar costs in squares.
+    private static final Strategy[] WEIGHTED = {Strategy.DIAL, Strategy.A_STAR, Strategy.A_STAR_NODES};
+
+    public static void main(String[] args) throws Exception
+    {
+        var sizes = new int[]{501, 1001, 2001};
+        var braid = 0.5;
+        var maxCost = Terrain.MAX_COST;
+        int warmups = 2;
+        int iterations = 3;
+        long time = 500;
+        int forks = 3;
+        for (var arg : args)
+        {
+            var pair = arg.split("=", 2);
+            switch (pair[0])
+            {
+                case "sizes":
+                    var values = pair[1].split(",");
+                    sizes = new int[values.length];
+                    for (int i = 0; i < values.length; i++)
+                        sizes[i] = Integer.parseInt(values[i]);
+                    break;
+                case "braid":
+                    braid = Double.parseDouble(pair[1]);
+                    break;
+                case "maxCost":
+                    maxCost = Integer.parseInt(pair[1]);
+                    break;
+                case "warmups":
+                    warmups = Integer.parseInt(pair[1]);
+                    break;
+                case "iterations":
+                    iterations = Integer.parseInt(pair[1]);
+                    break;
+                case "time":
+                    time = Long.parseLong(pair[1]);
+                    break;
+                case "forks":
+                    forks = Integer.parseInt(pair[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        var harness = new Harness(WeightedComparison.class, args, warmups, iterations, time, forks);
+        for (var size : sizes)
+        {
+            for (var strategy : WEIGHTED)
+            {
+                if (strategy == Strategy.A_STAR_NODES && (long) size * size > 4_000_000)
+                    continue;
+                var terrainMaxCost = maxCost;
+                var fraction = braid;
+                harness.run(strategy.name().toLowerCase(), size + "x" + size, () -> {
+                    var maze = new Model(size, size, new Braider(new PassageTree(size, size, SEED), size, size, fraction, SEED))
+                        .withTerrain(Terrain.random(size, size, SEED, PATCH, terrainMaxCost));
+                    var cheapest = maze.getCost(maze.solve(Strategy.DIAL));
+                    var cost = maze.getCost(maze.solve(strategy));
+                    if (cost != cheapest)
+                        throw new IllegalStateException(strategy + " found a path of cost " + cost + " instead of " + cheapest);
+                    var start = maze.getEntrance().getRow() * size + maze.getEntrance().getColumn();
+                    var end = maze.getExit().getRow() * size + maze.getExit().getColumn();
+                    var finder = strategy.finder(maze.getGrid());
+                    return () -> finder.search(start, end).length;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package Generation;
+
+import java.util.Arrays;
+
+/**
+ * A stage after generation that turns a perfect maze into a braided one,
+ * with loops. It passes the passages of another generator through, records
+ * them and then removes a fraction of the dead ends: a dead end loses one
+ * of its walls, preferably the one to another dead end, so a single removal
+ * often fixes two of them. The fraction counts the dead ends removed, both
+ * of such a pair included, not the walls opened.
+ * <p>
+ * The dead ends are chosen in a shuffled order from the seed, so the same
+ * generator and seed give the same braided maze. A fraction of 0 leaves
+ * the maze perfect and 1 removes every dead end.
+ */
+public class Braider implements Generator
+{
+    private static final int[] ROW_STEP = {-1, 0, 1, 0};      //Directions go clockwise: 0 - up, 1 - right, 2 - down, 3 - left.
+    private static final int[] COLUMN_STEP = {0, 1, 0, -1};
+
+    private final Generator generator;
+    private final int height;               //The height of the maze in an imaginary edge form.
+    private final int width;                //The width of the maze in an imaginary edge form.
+    private final double fraction;
+    private final long seed;
+
+    public Braider(Generator generator, int height, int width, double fraction, long seed)
+    {
+        if (fraction < 0 || fraction > 1)
+            throw new IllegalArgumentException("The fraction of removed dead ends must be in [0, 1]");
+        if ((long) ((height - 1) / 2) * ((width - 1) / 2) > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("The maze is too large");
+        this.generator = generator;
+        this.height = (height - 1) / 2;
+        this.width = (width - 1) / 2;
+        this.fraction = fraction;
+        this.seed = seed;
+    }
+
+    @Override
+    public void generate(PassageSink sink)
+    {
+        var open = new long[(int) (((long) width * height * 2 + 63) >>> 6)];   //Two bits per cell: open to the left and open above.
+        generator.generate((row, column) -> {
+            if ((row & 1) != 0)
+                set(open, (row / 2 * width + column / 2) << 1);
+            else
+                set(open, (row / 2 * width + column / 2) << 1 | 1);
+            sink.carve(row, column);
+        });
+
+        var deadEnds = new int[64];
+        var count = 0;
+        for (int cell = 0; cell < width * height; cell++)
+        {
+            if (degree(open, cell) == 1)
+            {
+                if (count == deadEnds.length)
+                    deadEnds = Arrays.copyOf(deadEnds, 2 * count);
+                deadEnds[count++] = cell;
+            }
+        }
+        var random = new SplitMix(seed);
+        random.shuffle(deadEnds, count);
+        var removals = (int) Math.round(fraction * count);
+        for (int i = 0; i < count && removals > 0; i++)
+        {
+            if (degree(open, deadEnds[i]) == 1)     //An earlier removal may have opened it already.
+                removals -= removeWall(open, deadEnds[i], random, sink);
+        }
+    }
+
+    /**
+     * Opens one closed wall of a dead end: the wall to a neighbouring dead
+     * end if there is one and a random closed wall otherwise. Returns the
+     * number of dead ends removed.
+     */
+    private int removeWall(long[] open, int cell, SplitMix random, PassageSink sink)
+    {
+        var row = cell / width;
+        var column = cell % width;
+        var closed = new int[3];
+        var closedCount = 0;
+        var toDeadEnd = -1;
+        for (int direction = 0; direction < 4; direction++)
+        {
+            var nextRow = row + ROW_STEP[direction];
+            var nextColumn = column + COLUMN_STEP[direction];
+            if (nextRow < 0 || nextRow >= height || nextColumn < 0 || nextColumn >= width || isOpen(open, cell, direction))
+                continue;
+            closed[closedCount++] = direction;
+            if (toDeadEnd < 0 && degree(open, nextRow * width + nextColumn) == 1)
+                toDeadEnd = direction;
+        }
+        if (closedCount == 0)
+            return 0;
+        var direction = toDeadEnd >= 0 ? toDeadEnd : closed[random.nextInt(closedCount)];
+        switch (direction)
+        {
+            case 0:
+                set(open, cell << 1 | 1);
+                sink.carve(2 * row, 2 * column + 1);
+                break;
+            case 1:
+                set(open, (cell + 1) << 1);
+                sink.carve(2 * row + 1, 2 * column + 2);
+                break;
+            case 2:
+                set(open, (cell + width) << 1 | 1);
+                sink.carve(2 * row + 2, 2 * column + 1);
+                break;
+            default:
+                set(open, cell << 1);
+                sink.carve(2 * row + 1, 2 * column);
+                break;
+        }
+        return toDeadEnd >= 0 ? 2 : 1;
+    }
+
+    private boolean isOpen(long[] open, int cell, int direction)
+    {
+        switch (direction)
+        {
+            case 0:
+                return cell >= width && get(open, cell << 1 | 1);
+            case 1:
+                return cell % width < width - 1 && get(open, (cell + 1) << 1);
+            case 2:
+                return cell + width < width * height && get(open, (cell + width) << 1 | 1);
+            default:
+                return cell % width > 0 && get(open, cell << 1);
+        }
+    }
+
+    private int degree(long[] open, int cell)
+    {
+        var degree = 0;
+        for (int direction = 0; direction < 4; direction++)
+        {
+            if (isOpen(open, cell, direction))
+                degree++;
+        }
+        return degree;
+    }
+
+    private static boolean get(long[] bits, int index)
+    {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    private static void set(long[] bits, int index)
+    {
+        bits[index >>> 6] |= 1L << index;
+    }
+}
@@ -0,0 +1,158 @@
+package Generation;
+
+/**
+ * A generator that can build any chunk of a maze on its own. The imaginary
+ * edge form is split into square chunks of cells. Every chunk gets its own
+ * random spanning tree, shuffled with a seed derived from the maze seed
+ * and the chunk, and the chunks are joined by a random spanning tree of
+ * the chunk grid that is built once in the constructor. Each edge of that
+ * tree opens exactly one passage through the boundary of two chunks, at a
+ * position derived from the seed. Trees inside the chunks joined by a tree
+ * of chunks make a spanning tree of all cells, so the maze is perfect.
+ * <p>
+ * A chunk carves the passages inside it and the openings through its left
+ * and top boundaries, so the chunks carve disjoint sets of squares and can
+ * be generated in any order, or only when they are needed.
+ */
+public class ChunkedPassageTree implements Generator
+{
+    public static final int DEFAULT_CHUNK_SIZE = 128;
+
+    private final int height;               //The height of the maze in an imaginary edge form.
+    private final int width;                //The width of the maze in an imaginary edge form.
+    private final long seed;
+    private final int chunkSize;            //The side of a chunk in cells of the edge form.
+    private final int chunkRows;
+    private final int chunkColumns;
+    private final long[] openings;          //Two bits per chunk: 1 if the chunk opens to the chunk on the left, 2 if to the one above.
+
+    public ChunkedPassageTree(int height, int width, long seed, int chunkSize)
+    {
+        if (chunkSize < 2)
+            throw new IllegalArgumentException("Invalid chunk size " + chunkSize);
+        this.height = (height - 1) / 2;
+        this.width = (width - 1) / 2;
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        chunkRows = (this.height + chunkSize - 1) / chunkSize;
+        chunkColumns = (this.width + chunkSize - 1) / chunkSize;
+        if ((long) chunkRows * chunkColumns > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("The maze is too large for chunks of " + chunkSize);
+        openings = new long[(int) (((long) chunkRows * chunkColumns * 2 + 63) >>> 6)];
+        joinChunks();
+    }
+
+    public ChunkedPassageTree(int height, int width, long seed)
+    {
+        this(height, width, seed, DEFAULT_CHUNK_SIZE);
+    }
+
+    public int getChunkSize()               //The side of a chunk in cells. A chunk covers 2 * getChunkSize() rows and columns of squares.
+    {
+        return chunkSize;
+    }
+
+    public int getChunkRows()
+    {
+        return chunkRows;
+    }
+
+    public int getChunkColumns()
+    {
+        return chunkColumns;
+    }
+
+    @Override
+    public void generate(PassageSink sink)  //Generates the whole maze chunk by chunk.
+    {
+        for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++)
+        {
+            for (int chunkColumn = 0; chunkColumn < chunkColumns; chunkColumn++)
+                generateChunk(chunkRow, chunkColumn, sink);
+        }
+    }
+
+    /**
+     * Carves the passages of one chunk: the edges of its spanning tree and
+     * the openings through its left and top boundaries. Every carved square
+     * is in rows {@code [2 * chunkRow * chunkSize, 2 * (chunkRow + 1) * chunkSize)}
+     * and the columns of the same form.
+     */
+    public void generateChunk(int chunkRow, int chunkColumn, PassageSink sink)
+    {
+        var top = chunkRow * chunkSize;
+        var left = chunkColumn * chunkSize;
+        var rows = Math.min(chunkSize, height - top);
+        var columns = Math.min(chunkSize, width - left);
+        var chunk = chunkRow * chunkColumns + chunkColumn;
+
+        var edges = new int[Math.max(0, 2 * rows * columns - rows - columns)];
+        var count = 0;
+        for (int row = 0; row < rows; row++)
+        {
+            for (int column = 0; column < columns; column++)
+            {
+                var index = row * columns + column;
+                if (column > 0)
+                    edges[count++] = index << 1;
+                if (row > 0)
+                    edges[count++] = index << 1 | 1;
+            }
+        }
+        new SplitMix(derive((long) chunk << 2 | 2)).shuffle(edges, count);
+        var disjointSets = new DisjointSet(rows * columns);
+        for (var edge : edges)
+        {
+            var first = edge >>> 1;
+            var second = (edge & 1) == 0 ? first - 1 : first - columns;
+            if (disjointSets.union(first, second))
+                carve(top + first / columns, left + first % columns, edge & 1, sink);
+        }
+
+        if ((openings[(chunk << 1) >>> 6] & 1L << (chunk << 1)) != 0)
+            carve(top + opening(chunk, 0, rows), left, 0, sink);
+        if ((openings[(chunk << 1 | 1) >>> 6] & 1L << (chunk << 1 | 1)) != 0)
+            carve(top, left + opening(chunk, 1, columns), 1, sink);
+    }
+
+    private void joinChunks()               //Builds a random spanning tree of the chunks with Kruskal's algorithm.
+    {
+        var chunks = chunkRows * chunkColumns;
+        var edges = new int[Math.max(0, 2 * chunks - chunkRows - chunkColumns)];
+        var count = 0;
+        for (int chunk = 0; chunk < chunks; chunk++)
+        {
+            if (chunk % chunkColumns > 0)
+                edges[count++] = chunk << 1;
+            if (chunk >= chunkColumns)
+                edges[count++] = chunk << 1 | 1;
+        }
+        new SplitMix(seed).shuffle(edges, count);
+        var disjointSets = new DisjointSet(chunks);
+        for (var edge : edges)
+        {
+            var first = edge >>> 1;
+            var second = (edge & 1) == 0 ? first - 1 : first - chunkColumns;
+            if (disjointSets.union(first, second))
+                openings[edge >>> 6] |= 1L << edge;
+        }
+    }
+
+    private int opening(int chunk, int direction, int length)   //The position of an opening along the side of a chunk.
+    {
+        return (int) Long.remainderUnsigned(derive((long) chunk << 2 | direction), length);
+    }
+
+    private long derive(long salt)          //A seed for one use in one chunk, independent of the seeds of other uses and chunks.
+    {
+        return SplitMix.mix(seed ^ SplitMix.mix(salt));
+    }
+
+    private static void carve(int row, int column, int direction, PassageSink sink)
+    {                                       //Carves the square between a cell and the cell on its left (0) or above (1).
+        if (direction == 0)
+            sink.carve(2 * row + 1, 2 * column);
+        else
+            sink.carve(2 * row, 2 * column + 1);
+    }
+}
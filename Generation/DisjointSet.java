@@ -1,26 +1,28 @@
 package Generation;
 
-import static java.util.stream.IntStream.range;
+import java.util.Arrays;
 
 public class DisjointSet
 {                                //Representatives for disjoint subsets. If the set consists
                                  //only of the one element its parent equals to its id.
     int[] parent;                //Otherwise, its parent is the next element up the tree.
-    int[] rank;                  //Heights of the trees corresponding to the subsets. A subset with one element has a rank of zero.
+    byte[] rank;                 //Heights of the trees corresponding to the subsets. A subset with one element has a rank of zero.
+                                 //Union by rank keeps ranks below log2(size) < 32, so a byte is enough.
     int size;                    //The number of disjoint subsets.
     
     public DisjointSet(int size)                //Constructs a disjoint set of disjoint subsets(size).
     {
-        this.size = size;
         parent = new int[size];
-        rank = new int[size];
-        range(0, size).forEach(this::makeSet);
+        rank = new byte[size];
+        reset();
     }
 
-    void makeSet(int i)                         //Initializes a particular set.
+    void reset()                                //Splits everything back into subsets of one element, so the object can be reused.
     {
-        parent[i] = i;
-        rank[i] = 0;
+        size = parent.length;
+        for (int i = 0; i < size; i++)
+            parent[i] = i;
+        Arrays.fill(rank, (byte) 0);
     }
 
     public int getSize()                        //Returns the number of disjoint subsets.
@@ -28,11 +30,15 @@ public class DisjointSet
         return size;
     }
 
-    public int find(int i)                      //Finds a representative for the set. If the set consists only of the one element its parent equals to its id.
-    {
-        if (i != parent[i])
-            parent[i] = find(parent[i]);
-        return parent[i];
+    public int find(int i)                      //Finds a representative for the set. Iterative, with path halving: every visited element
+    {                                           //is linked to its grandparent, so the chain is flattened without any recursion.
+        while (parent[i] != i)
+        {
+            var grandparent = parent[parent[i]];
+            parent[i] = grandparent;
+            i = grandparent;
+        }
+        return i;
     }
 
     public boolean union(int i, int j)          //Merges two disjoint sets into one by the ids if their ids are not in the same set already.
@@ -0,0 +1,264 @@
+package Generation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A streaming generator based on
+ * <a href="http://www.neocomputer.org/projects/eller.html">Eller's algorithm</a>.
+ * It builds a perfect maze one row of the imaginary edge form at a time and
+ * writes the rows straight to a stream in the text save format, so only
+ * O(width) state is kept no matter how many rows the maze has.
+ * <p>
+ * The layout is the same as the one of a generated {@link Maze.Model}:
+ * walls around, the entrance in the top row and the exit in the bottom row.
+ * The height is a long, so the output can be larger than what
+ * {@code Model} is able to load.
+ * <p>
+ * As a {@link Generator} it carves the passages of the same maze row by
+ * row, still with O(width) state, which suits grids that do not live on
+ * the heap such as the mapped grid of {@code Model.create}. A generator
+ * makes one maze: call either {@code write} or {@code generate} once.
+ */
+public class Eller implements Generator
+{
+    private static final byte WALL = '1';
+    private static final byte PASSAGE = '0';
+
+    private final long height;              //The height of the maze in an original form.
+    private final int width;                //The width of the maze in an original form.
+    private final long rows;                //The height of the maze in an imaginary edge form.
+    private final int columns;              //The width of the maze in an imaginary edge form.
+    private final SplitMix random;
+
+    private final int[] set;                //The set of every cell of the current row or -1 for a cell which is not in any set yet.
+    private final int[] members;            //The number of cells in every set.
+    private final int[] free;               //A stack of set ids which are not used in the current row.
+    private int freeCount;
+    private final boolean[] right;          //Whether a cell is joined to the cell on its right.
+    private final boolean[] down;           //Whether a cell is joined to the cell below.
+    private final int[] seen;               //The number of cells of a set visited while choosing the cells that go down.
+    private final int[] chosen;             //A cell of a set that goes down if no other cell of the set was chosen.
+    private final boolean[] hasDown;        //Whether a set already goes down.
+    private final DisjointSet merged;       //Sets merged while joining a row, reset for every row.
+    private final byte[] line;              //A reusable buffer for one row of the output.
+
+    public Eller(long height, int width, long seed)
+    {
+        if (height < 3 || width < 3)
+        {
+            throw new IllegalArgumentException(
+                "Both the height and the width " +
+                    "of the maze must be at least 3");
+        }
+        this.height = height;
+        this.width = width;
+        rows = (height - 1) / 2;
+        columns = (width - 1) / 2;
+        random = new SplitMix(seed);
+        set = new int[columns];
+        members = new int[columns];
+        free = new int[columns];
+        right = new boolean[columns];
+        down = new boolean[columns];
+        seen = new int[columns];
+        chosen = new int[columns];
+        hasDown = new boolean[columns];
+        merged = new DisjointSet(columns);
+        line = new byte[2 * width + 1];
+        line[line.length - 1] = '\n';
+    }
+
+    public void write(Path path) throws IOException
+    {
+        try (var out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))
+        {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream out) throws IOException      //Writes the header and then every row of the maze as soon as it is generated.
+    {
+        out.write((height + " " + width + "\n").getBytes(StandardCharsets.US_ASCII));
+        var exitColumn = 2 * columns - 1;
+
+        clear();
+        put(1, PASSAGE);
+        out.write(line);
+
+        start();
+        for (long r = 0; r < rows; r++)
+        {
+            var last = nextRow(r);
+
+            clear();
+            for (int c = 0; c < columns; c++)
+            {
+                put(2 * c + 1, PASSAGE);
+                if (right[c])
+                    put(2 * c + 2, PASSAGE);
+            }
+            out.write(line);
+
+            clear();
+            if (last)
+            {
+                put(exitColumn, PASSAGE);
+            }
+            else
+            {
+                for (int c = 0; c < columns; c++)
+                {
+                    if (down[c])
+                        put(2 * c + 1, PASSAGE);
+                }
+                moveDown();
+            }
+            out.write(line);
+        }
+        if (height % 2 == 0)
+        {
+            clear();
+            put(exitColumn, PASSAGE);
+            out.write(line);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void generate(PassageSink sink)      //Carves the passages between the cells. The cells, the entrance and the exit are left to the grid.
+    {
+        if (height > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The maze is too high to be carved into a grid");
+        start();
+        for (int r = 0; r < rows; r++)
+        {
+            var last = nextRow(r);
+            for (int c = 0; c < columns; c++)
+            {
+                if (right[c])
+                    sink.carve(2 * r + 1, 2 * c + 2);
+            }
+            if (!last)
+            {
+                for (int c = 0; c < columns; c++)
+                {
+                    if (down[c])
+                        sink.carve(2 * r + 2, 2 * c + 1);
+                }
+                moveDown();
+            }
+        }
+    }
+
+    private void start()                        //No cell of the first row is in a set and all set ids are free.
+    {
+        for (int c = 0; c < columns; c++)
+        {
+            set[c] = -1;
+            free[c] = columns - 1 - c;
+        }
+        freeCount = columns;
+    }
+
+    private boolean nextRow(long r)             //Joins the cells of a row and chooses the ones that go down. Returns whether it is the last row.
+    {
+        var last = r == rows - 1;
+        assignSets();
+        joinRight(last);
+        if (!last)
+            chooseDown();
+        return last;
+    }
+
+    private void assignSets()                   //Puts every cell that is not in a set yet into a new set of its own.
+    {
+        for (int c = 0; c < columns; c++)
+        {
+            if (set[c] < 0)
+            {
+                set[c] = free[--freeCount];
+                members[set[c]] = 1;
+            }
+        }
+    }
+
+    private void joinRight(boolean all)         //Randomly joins neighboring cells of different sets. In the last row all of them are joined.
+    {
+        merged.reset();
+        for (int c = 0; c < columns - 1; c++)
+        {
+            right[c] = (all || (random.nextLong() & 1) == 0)
+                && merged.union(set[c], set[c + 1]);
+        }
+        right[columns - 1] = false;
+        for (int c = 0; c < columns; c++)
+        {
+            var root = merged.find(set[c]);
+            if (root != set[c])
+            {
+                members[root]++;
+                if (--members[set[c]] == 0)
+                    free[freeCount++] = set[c];
+                set[c] = root;
+            }
+        }
+    }
+
+    private void chooseDown()                   //Randomly chooses the cells that go down, at least one for every set.
+    {
+        for (int c = 0; c < columns; c++)
+        {
+            seen[set[c]] = 0;
+            hasDown[set[c]] = false;
+        }
+        for (int c = 0; c < columns; c++)
+        {
+            var s = set[c];
+            down[c] = (random.nextLong() & 1) == 0;
+            hasDown[s] |= down[c];
+            if (random.nextInt(++seen[s]) == 0)
+                chosen[s] = c;
+        }
+        for (int c = 0; c < columns; c++)
+        {
+            var s = set[c];
+            if (!hasDown[s])
+            {
+                down[chosen[s]] = true;
+                hasDown[s] = true;
+            }
+        }
+    }
+
+    private void moveDown()                     //Cells that do not go down leave their sets, the next row gets new sets for them.
+    {
+        for (int c = 0; c < columns; c++)
+        {
+            if (!down[c])
+            {
+                if (--members[set[c]] == 0)
+                    free[freeCount++] = set[c];
+                set[c] = -1;
+            }
+        }
+    }
+
+    private void clear()                        //Fills the row buffer with walls.
+    {
+        for (int i = 0; i < width; i++)
+        {
+            line[2 * i] = WALL;
+            line[2 * i + 1] = ' ';
+        }
+    }
+
+    private void put(int column, byte square)
+    {
+        line[2 * column] = square;
+    }
+}
@@ -0,0 +1,6 @@
+package Generation;
+
+public interface Generator              //Generates the passages of a perfect maze of the size it was created with.
+{
+    void generate(PassageSink sink);
+}
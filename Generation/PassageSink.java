@@ -0,0 +1,7 @@
+package Generation;
+
+@FunctionalInterface
+public interface PassageSink            //Receives the squares that a generator turns into passages, in the original form coordinates.
+{
+    void carve(int row, int column);
+}
@@ -1,55 +1,62 @@
 package Generation;
 
-import Maze.Cell;
+import Metrics.MazeMetrics;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
-import static java.util.stream.Collectors.toList;
-import static Maze.Cell.Type.PASSAGE;
-
-public class PassageTree 
+public class PassageTree implements Generator
 {
 
     int height;               //The height of the maze in an imaginary edge form.
     int width;                //The width of the maze in an imaginary edge form.
+    long seed;                //The seed of the shuffle. The same seed generates the same maze.
 
-    public PassageTree(int height, int width)     //Creates a new imaginary edge form
+    public PassageTree(int height, int width, long seed)     //Creates a new imaginary edge form
     {
         this.height = (height - 1) / 2;
         this.width = (width - 1) / 2;
+        this.seed = seed;
     }
 
-    public List<Cell> generate()                  //Generates a random list of cells that connect passages in an original form such that a maze is simply connected.
+    public PassageTree(int height, int width)
     {
+        this(height, width, System.nanoTime());
+    }
+
+    @Override
+    public void generate(PassageSink sink)        //Generates random cells that connect passages in an original form such that a maze is simply connected
+    {                                             //and passes them to the sink.
+        var timed = MazeMetrics.generationActive();
+        var begin = timed ? System.nanoTime() : 0;
         var edges = createEdges();
-        Collections.shuffle(edges);
-        var tree = buildRandomSpanningTree(edges);
-        return createPassages(tree);
+        var created = timed ? System.nanoTime() : 0;
+        new SplitMix(seed).shuffle(edges, edges.length);
+        var shuffled = timed ? System.nanoTime() : 0;
+        var unions = buildRandomSpanningTree(edges, sink);
+        if (timed)
+            MazeMetrics.recordGeneration("PassageTree", 2 * height + 1, 2 * width + 1,
+                                         created - begin, shuffled - created, System.nanoTime() - shuffled, unions);
     }
 
-    private List<Edge> createEdges()              //Creates a list of all possible edges in an imaginary edge form.
+    /**
+     * Creates all possible edges in an imaginary edge form. An edge is
+     * stored as an int: the index of its cell times two plus the direction
+     * to the other cell, 0 for the cell to the left and 1 for the cell above.
+     */
+    private int[] createEdges()
     {
-        var edges = new ArrayList<Edge>();
-        for (int column = 1; column < width; column++) 
-        {
-            edges.add(new Edge(toIndex(0, column),
-                               toIndex(0, column - 1)));
-        }
-        for (int row = 1; row < height; row++)
-        {
-            edges.add(new Edge(toIndex(row, 0),
-                               toIndex(row - 1, 0)));
-        }
-        for (int row = 1; row < height; row++) 
+        var cells = (long) width * height;
+        if (cells > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("The maze is too large");
+        var edges = new int[(int) Math.max(0, 2 * cells - width - height)];
+        var count = 0;
+        for (int row = 0; row < height; row++) 
         {
-            for (int column = 1; column < width; column++) 
+            for (int column = 0; column < width; column++) 
             {
-                edges.add(new Edge(toIndex(row, column),
-                                   toIndex(row, column - 1)));
-                edges.add(new Edge(toIndex(row, column),
-                                   toIndex(row - 1, column)));
+                var index = toIndex(row, column);
+                if (column > 0)
+                    edges[count++] = index << 1;
+                if (row > 0)
+                    edges[count++] = index << 1 | 1;
             }
         }
         return edges;
@@ -60,44 +67,30 @@ public class PassageTree
         return row * width + column;
     }
 
-    private List<Edge> buildRandomSpanningTree(List<Edge> edges) //Generates a list of edges that connect passages. Its a Randomized Kruskals algorithm implementation.
-    {                                                            //On each step of the algorithm an edge is added to the list only if it connects two disjoint subsets.
-        var disjointSets = new DisjointSet(width * height);
-        return edges
-            .stream()
-            .filter(edge -> connects(edge, disjointSets))
-            .collect(toList());
-    }
-
-    
-    private boolean connects(Edge edge, DisjointSet disjointSet)            //Checks if an edge connects two disjoint subsets.
-    {
-        return disjointSet.union(edge.getFirstCell(), edge.getSecondCell());
-    }
-
-    
-    private List<Cell> createPassages(List<Edge> spanningTree)              //Scales and converts edges in an imaginary edge form to the cells
-    {                                                                       //which connect passages in a original form.
-        return spanningTree
-            .stream()
-            .map(edge -> {
-                var first = fromIndex(edge.getFirstCell());
-                var second = fromIndex(edge.getSecondCell());
-                return getPassage(first, second);
-            }).collect(toList());
-    }
-
-    private Cell fromIndex(int index)     //Transforms the coordinate in a 1-dimensional array back to the coordinates in a 2-dimensional array using the
-    {                                     //row = index / width and column = index % width formulas.
-        var row = index / width;
-        var column = index % width;
-        return new Cell(row, column, PASSAGE);
+    private int buildRandomSpanningTree(int[] edges, PassageSink sink)   //Carves the edges that connect passages. Its a Randomized Kruskals algorithm implementation.
+    {                                                                    //On each step of the algorithm an edge is carved only if it connects two disjoint subsets.
+        var disjointSets = new DisjointSet(width * height);              //Returns the number of successful unions, which is the number of carved edges.
+        var unions = 0;
+        for (var edge : edges)
+        {
+            var first = edge >>> 1;
+            var second = (edge & 1) == 0 ? first - 1 : first - width;
+            if (disjointSets.union(first, second))
+            {
+                carve(first, edge & 1, sink);
+                unions++;
+            }
+        }
+        return unions;
     }
 
-    private Cell getPassage(Cell first, Cell second)        //Given the coordinates of two cells that compose an edge in an imaginary edge form,
-    {                                                       //it scales and transforms them to the coordinates of the cell that connect passages in an
-        var row = first.getRow() + second.getRow() + 1;     //original form. Returns a passage cell with this coordinates.
-        var column = first.getColumn() + second.getColumn() + 1;
-        return new Cell(row, column, PASSAGE);
+    private void carve(int index, int direction, PassageSink sink)     //Scales an edge in an imaginary edge form to the cell which connects passages
+    {                                                                   //in an original form: the cell between 2 * row + 1 and 2 * column + 1 of both ends.
+        var row = 2 * (index / width) + 1;
+        var column = 2 * (index % width) + 1;
+        if (direction == 0)
+            sink.carve(row, column - 1);
+        else
+            sink.carve(row - 1, column);
     }
 }
@@ -0,0 +1,42 @@
+package Generation;
+
+public class SplitMix                   //A small and fast seedable generator of pseudo-random numbers (SplitMix64).
+{                                       //The same seed always gives the same sequence.
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SplitMix(long seed)
+    {
+        state = seed;
+    }
+
+    public long nextLong()
+    {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    public int nextInt(int bound)       //Returns a number in [0, bound) using Lemire's multiply-shift reduction.
+    {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    public void shuffle(int[] array, int length)    //Shuffles the first length elements of an array in place (Fisher-Yates).
+    {
+        for (int i = length - 1; i > 0; i--)
+        {
+            var j = nextInt(i + 1);
+            var tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    public static long mix(long z)      //The SplitMix64 finalizer. Also used to derive independent seeds.
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,261 @@
+package Generation;
+
+import Metrics.MazeMetrics;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A parallel Kruskal generator. Every edge of the imaginary edge form gets
+ * a pseudo-random weight derived from the seed and the edge itself, and the
+ * maze is the minimum spanning tree by these weights.
+ * <p>
+ * The edge form is split into square tiles. Each tile sorts its inner edges
+ * and builds its own spanning tree on a fork-join pool. An inner edge that
+ * the tile rejects closes a cycle of lighter edges, so it cannot be in the
+ * spanning tree of the whole maze either. The final pass runs Kruskal over
+ * the tile trees and the edges on the tile boundaries only and joins the
+ * tiles into one perfect maze.
+ * <p>
+ * The result depends only on the size and the seed, not on the number of
+ * threads, and it is exactly what a sequential Kruskal with the same weights
+ * would generate, so tile boundaries are not visible.
+ */
+public class TiledPassageTree implements Generator
+{
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    private final int height;               //The height of the maze in an imaginary edge form.
+    private final int width;                //The width of the maze in an imaginary edge form.
+    private final long seed;
+    private final int tileSize;             //The side of a tile in cells of the edge form.
+    private final ForkJoinPool pool;
+
+    public TiledPassageTree(int height, int width, long seed, int tileSize, ForkJoinPool pool)
+    {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("Invalid tile size " + tileSize);
+        this.height = (height - 1) / 2;
+        this.width = (width - 1) / 2;
+        this.seed = seed;
+        this.tileSize = tileSize;
+        this.pool = pool;
+        if ((long) this.width * this.height > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("The maze is too large");
+    }
+
+    public TiledPassageTree(int height, int width, long seed)
+    {
+        this(height, width, seed, DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public void generate(PassageSink sink)      //Reports the tile trees as the edge creation, the sort as the shuffle and the final pass
+    {                                           //as the spanning tree phase to MazeMetrics.
+        var timed = MazeMetrics.generationActive();
+        var begin = timed ? System.nanoTime() : 0;
+        var tileRows = (height + tileSize - 1) / tileSize;
+        var tileColumns = (width + tileSize - 1) / tileSize;
+        var candidates = new long[tileRows * tileColumns][];
+        var edges = run(() -> {
+            new TileTask(candidates, 0, candidates.length, tileColumns).invoke();
+            return concat(candidates);
+        });
+        var created = timed ? System.nanoTime() : 0;
+        run(() -> {
+            Arrays.parallelSort(edges);
+            return edges;
+        });
+        var sorted = timed ? System.nanoTime() : 0;
+        var disjointSets = new DisjointSet(width * height);
+        var unions = 0;
+        for (var key : edges)
+        {
+            var edge = (int) key;
+            var first = edge >>> 1;
+            if (disjointSets.union(first, neighbor(edge)))
+            {
+                carve(first, edge & 1, sink);
+                unions++;
+            }
+        }
+        if (timed)
+            MazeMetrics.recordGeneration("TiledPassageTree", 2 * height + 1, 2 * width + 1,
+                                         created - begin, sorted - created, System.nanoTime() - sorted, unions);
+    }
+
+    private long[] run(Callable<long[]> task)
+    {
+        try
+        {
+            return pool.submit(task).get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The generation was interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("The generation failed", e.getCause());
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class TileTask extends RecursiveAction      //Builds the trees of a range of tiles, splitting the range in halves.
+    {
+        private final long[][] candidates;
+        private final int from;
+        private final int to;
+        private final int tileColumns;
+
+        TileTask(long[][] candidates, int from, int to, int tileColumns)
+        {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.tileColumns = tileColumns;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from == 1)
+            {
+                candidates[from] = buildTile(from / tileColumns, from % tileColumns);
+                return;
+            }
+            var middle = (from + to) >>> 1;
+            invokeAll(new TileTask(candidates, from, middle, tileColumns),
+                      new TileTask(candidates, middle, to, tileColumns));
+        }
+    }
+
+    /**
+     * Builds the spanning tree of one tile. Returns its edges together with
+     * the boundary edges to the tiles on the left and above, all as sort keys.
+     */
+    private long[] buildTile(int tileRow, int tileColumn)
+    {
+        var top = tileRow * tileSize;
+        var left = tileColumn * tileSize;
+        var rows = Math.min(tileSize, height - top);
+        var columns = Math.min(tileSize, width - left);
+
+        var inner = new long[2 * rows * columns];
+        var innerCount = 0;
+        var boundary = new long[rows + columns];
+        var boundaryCount = 0;
+        for (int row = top; row < top + rows; row++)
+        {
+            for (int column = left; column < left + columns; column++)
+            {
+                var index = row * width + column;
+                if (column > left)
+                    inner[innerCount++] = key(index << 1);
+                else if (column > 0)
+                    boundary[boundaryCount++] = key(index << 1);
+                if (row > top)
+                    inner[innerCount++] = key(index << 1 | 1);
+                else if (row > 0)
+                    boundary[boundaryCount++] = key(index << 1 | 1);
+            }
+        }
+        sortKeys(inner, innerCount);
+
+        var result = Arrays.copyOf(boundary, rows * columns - 1 + boundaryCount);
+        var count = boundaryCount;
+        var disjointSets = new DisjointSet(rows * columns);
+        for (int i = 0; i < innerCount; i++)
+        {
+            var edge = (int) inner[i];
+            var first = edge >>> 1;
+            var second = neighbor(edge);
+            if (disjointSets.union(local(first, top, left, columns), local(second, top, left, columns)))
+                result[count++] = inner[i];
+        }
+        return result;
+    }
+
+    /**
+     * Sorts keys into the same order as {@link Arrays#sort(long[])}. The
+     * weights in the upper halves are uniformly random, so one counting pass
+     * on their top bits leaves about one key per bucket and an insertion
+     * sort finishes every bucket, with no comparison sort over the tile.
+     */
+    static void sortKeys(long[] keys, int length)
+    {
+        if (length < 2)
+            return;
+        var bits = 31 - Integer.numberOfLeadingZeros(length);
+        var shift = 64 - Math.max(bits, 1);
+        var starts = new int[(1 << Math.max(bits, 1)) + 1];
+        for (int i = 0; i < length; i++)
+            starts[(int) ((keys[i] ^ Long.MIN_VALUE) >>> shift) + 1]++;    //The sign flip turns the signed order into the unsigned one.
+        for (int b = 1; b < starts.length; b++)
+            starts[b] += starts[b - 1];
+        var sorted = new long[length];
+        var next = starts.clone();
+        for (int i = 0; i < length; i++)
+            sorted[next[(int) ((keys[i] ^ Long.MIN_VALUE) >>> shift)]++] = keys[i];
+        for (int b = 0; b + 1 < starts.length; b++)
+        {
+            for (int i = starts[b] + 1; i < starts[b + 1]; i++)
+            {
+                var key = sorted[i];
+                var j = i - 1;
+                while (j >= starts[b] && sorted[j] > key)
+                {
+                    sorted[j + 1] = sorted[j];
+                    j--;
+                }
+                sorted[j + 1] = key;
+            }
+        }
+        System.arraycopy(sorted, 0, keys, 0, length);
+    }
+
+    private int local(int index, int top, int left, int columns)    //Converts a cell index of the edge form into an index inside a tile.
+    {
+        return (index / width - top) * columns + index % width - left;
+    }
+
+    private long key(int edge)                  //The weight of an edge in the upper half and the edge itself in the lower half.
+    {
+        return SplitMix.mix(seed + edge) & 0xFFFFFFFF00000000L | edge;
+    }
+
+    private int neighbor(int edge)              //The other cell of an edge: the one to the left or the one above.
+    {
+        var first = edge >>> 1;
+        return (edge & 1) == 0 ? first - 1 : first - width;
+    }
+
+    private static long[] concat(long[][] parts)
+    {
+        var length = 0;
+        for (var part : parts)
+            length += part.length;
+        var all = new long[length];
+        var position = 0;
+        for (var part : parts)
+        {
+            System.arraycopy(part, 0, all, position, part.length);
+            position += part.length;
+        }
+        return all;
+    }
+
+    private void carve(int index, int direction, PassageSink sink)     //Scales an edge to the cell which connects passages in an original form.
+    {
+        var row = 2 * (index / width) + 1;
+        var column = 2 * (index % width) + 1;
+        if (direction == 0)
+            sink.carve(row, column - 1);
+        else
+            sink.carve(row - 1, column);
+    }
+}
@@ -0,0 +1,191 @@
+package Interface;
+
+import Generation.SplitMix;
+import Maze.Model;
+import Maze.Solution;
+import Solving.Strategy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates many mazes without the menu. Generation, the optional solving
+ * and writing run as a pipeline of worker threads joined by bounded queues,
+ * so a fast stage waits for a slow one instead of piling mazes up in
+ * memory.
+ * <p>
+ * Options: {@code count=N size=HxW|S out=directory seed=S solve=STRATEGY
+ * format=binary|text threads=N}. The maze number i is generated from a seed
+ * derived from the seed and i and written to {@code maze-i} with the
+ * extension of the format, so the files are the same for any number of
+ * threads. With solve, the escape is written next to it to
+ * {@code maze-i.solution}: its length and its run-length moves.
+ */
+public class Batch
+{
+    private static final Item END = new Item(-1, null);    //Tells a worker of the next stage that there is nothing more to do.
+
+    private int count = 1;
+    private int height = 101;
+    private int width = 101;
+    private Path out = Paths.get("mazes");
+    private long seed = System.nanoTime();
+    private Strategy strategy;                  //Null if the mazes are not solved.
+    private boolean binary = true;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    public Batch(String[] options)
+    {
+        for (var option : options)
+        {
+            var pair = option.split("=", 2);
+            if (pair.length != 2)
+                throw new IllegalArgumentException("Invalid option " + option + ", expected name=value");
+            switch (pair[0])
+            {
+                case "count":
+                    count = Integer.parseInt(pair[1]);
+                    break;
+                case "size":
+                    var size = pair[1].split("x");
+                    height = Integer.parseInt(size[0]);
+                    width = Integer.parseInt(size[size.length - 1]);
+                    break;
+                case "out":
+                    out = Paths.get(pair[1]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(pair[1]);
+                    break;
+                case "solve":
+                    strategy = Strategy.valueOf(pair[1]);
+                    break;
+                case "format":
+                    if (!pair[1].equals("binary") && !pair[1].equals("text"))
+                        throw new IllegalArgumentException("Unknown format " + pair[1]);
+                    binary = pair[1].equals("binary");
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(pair[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        if (count < 0 || threads < 1 || height < 3 || width < 3)
+            throw new IllegalArgumentException("Invalid options");
+    }
+
+    public void run() throws IOException, InterruptedException
+    {
+        Files.createDirectories(out);
+        var begin = System.nanoTime();
+        var generated = new ArrayBlockingQueue<Item>(2 * threads);
+        var solved = strategy == null ? generated : new ArrayBlockingQueue<Item>(2 * threads);
+        var solvers = strategy == null ? 0 : threads;
+        var pool = Executors.newFixedThreadPool(2 * threads + solvers);
+        var workers = new ExecutorCompletionService<Void>(pool);
+
+        var next = new AtomicInteger();
+        var generatorsLeft = new AtomicInteger(threads);
+        var solversLeft = new AtomicInteger(solvers);
+        for (int i = 0; i < threads; i++)
+            workers.submit(() -> generate(next, generated, generatorsLeft, strategy == null ? threads : solvers));
+        for (int i = 0; i < solvers; i++)
+            workers.submit(() -> solve(generated, solved, solversLeft, threads));
+        for (int i = 0; i < threads; i++)
+            workers.submit(() -> write(solved));
+        await(workers, 2 * threads + solvers, pool);
+
+        var seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%d mazes %dx%d written to %s in %.2f s (%.1f mazes/s)%n",
+                          count, height, width, out, seconds, count / seconds);
+    }
+
+    private Void generate(AtomicInteger next, BlockingQueue<Item> generated, AtomicInteger left, int consumers) throws InterruptedException
+    {
+        for (var i = next.getAndIncrement(); i < count; i = next.getAndIncrement())
+            generated.put(new Item(i, new Model(height, width, SplitMix.mix(seed + i))));
+        finish(left, generated, consumers);
+        return null;
+    }
+
+    private Void solve(BlockingQueue<Item> generated, BlockingQueue<Item> solved, AtomicInteger left, int consumers) throws InterruptedException
+    {
+        for (var item = generated.take(); item != END; item = generated.take())
+        {
+            item.escape = item.maze.solve(strategy);
+            solved.put(item);
+        }
+        finish(left, solved, consumers);
+        return null;
+    }
+
+    private Void write(BlockingQueue<Item> solved) throws InterruptedException, IOException
+    {
+        var digits = Integer.toString(Math.max(0, count - 1)).length();
+        for (var item = solved.take(); item != END; item = solved.take())
+        {
+            var name = String.format("maze-%0" + digits + "d", item.index);
+            item.maze.save(out.resolve(name + (binary ? Model.BINARY_EXTENSION : ".txt")));
+            if (item.escape != null)
+                Files.writeString(out.resolve(name + ".solution"),
+                                  item.escape.getLength() + "\n" + item.escape.getPath().toRunLength() + "\n",
+                                  StandardCharsets.UTF_8);
+            item.maze.discard();
+        }
+        return null;
+    }
+
+    private static void finish(AtomicInteger left, BlockingQueue<Item> queue, int consumers) throws InterruptedException
+    {                                           //The last worker of a stage tells every worker of the next stage to stop.
+        if (left.decrementAndGet() == 0)
+        {
+            for (int i = 0; i < consumers; i++)
+                queue.put(END);
+        }
+    }
+
+    private static void await(ExecutorCompletionService<Void> workers, int count, ExecutorService pool)
+        throws IOException, InterruptedException
+    {                                           //Waits for every worker. On the first failure stops the rest and rethrows it.
+        try
+        {
+            for (int i = 0; i < count; i++)
+                workers.take().get();
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IllegalStateException("The batch failed", e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private static class Item                   //A maze on its way through the pipeline.
+    {
+        final int index;
+        final Model maze;
+        Solution escape;
+
+        Item(int index, Model maze)
+        {
+            this.index = index;
+            this.maze = maze;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package Interface;
 
 import Maze.Model;
+import Maze.Solution;
+import Solving.Strategy;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.InputMismatchException;
 import java.util.Scanner;
@@ -14,6 +15,7 @@ public class Console                        //This class is a console wrapper fo
 {                                           //Stores a maze internally.
     private Scanner scanner;
     private Model maze;
+    private Strategy strategy = Strategy.A_STAR;
     private boolean isMazeAvailable = false;
 
     /**
@@ -25,8 +27,10 @@ public class Console                        //This class is a console wrapper fo
      * 3. Save the maze<br>
      * 4. Display the maze<br>
      * 5. Find the escape<br>
+     * 6. Choose the solver<br>
+     * 7. Display a region of a maze file<br>
      * <p>
-     * The last three are available only if
+     * Options 3 to 5 are available only if
      * {@code isMazeAvailable == true}.
      */
     public void start() 
@@ -59,6 +63,12 @@ public class Console                        //This class is a console wrapper fo
                     case 5:
                         findEscape();
                         break;
+                    case 6:
+                        chooseStrategy();
+                        break;
+                    case 7:
+                        displayRegion();
+                        break;
                     default:
                         System.out.println("Incorrect option. Please try again");
                         break;
@@ -86,6 +96,8 @@ public class Console                        //This class is a console wrapper fo
             System.out.println("4. Display the maze");
             System.out.println("5. Find the escape");
         }
+        System.out.println("6. Choose the solver (" + strategy.getDescription() + ")");
+        System.out.println("7. Display a region of a maze file");
         System.out.println("0. Exit");
     }
 
@@ -125,8 +137,7 @@ public class Console                        //This class is a console wrapper fo
         var filename = scanner.nextLine();
         try 
         {
-            var content = Files.readString(Paths.get(filename));
-            maze = Model.load(content);
+            maze = Model.load(Paths.get(filename));
             isMazeAvailable = true;
             System.out.println("The maze is loaded");
         } 
@@ -142,28 +153,92 @@ public class Console                        //This class is a console wrapper fo
 
     private void save()                         //Asks for a filename and then saves the serialized maze to the corresponding file.
     {
-        System.out.println("Enter the filename");
+        System.out.println("Enter the filename (use the " + Model.BINARY_EXTENSION + " extension for the binary format or "
+                           + Model.TILED_EXTENSION + " for the tiled format)");
         var filename = scanner.nextLine();
         try 
         {
-            var export = maze.export();
-            Files.write(Paths.get(filename), export.getBytes());
+            maze.save(Paths.get(filename));
             System.out.println("The maze is saved");
         } 
        catch (IOException e) 
        {
             System.out.println("Cannot write to file " + filename);
        }
+       catch (IllegalArgumentException e)
+       {
+            System.out.println(e.getMessage());
+       }
     }
 
     private void display()                    //Prints the current maze.
     {
-        System.out.println(maze);
+        print(null);
     }
 
     private void findEscape()                 //Prints the maze with its path from the entrance to the exit.
     {
-        System.out.println(maze.findEscape());
+        print(maze.solve(strategy));
+    }
+
+    private void chooseStrategy()             //Lists the available solvers and asks a user to choose the one to find escapes with.
+    {
+        var strategies = Strategy.values();
+        for (int i = 0; i < strategies.length; i++)
+            System.out.println((i + 1) + ". " + strategies[i].getDescription());
+        var choice = parseInt(scanner.nextLine().trim());
+        if (choice < 1 || choice > strategies.length)
+        {
+            System.out.println("Incorrect option. Please try again");
+            return;
+        }
+        strategy = strategies[choice - 1];
+        System.out.println("The solver is " + strategy.getDescription());
+    }
+
+    private void displayRegion()               //Asks for a filename and a rectangle and prints only that part of the saved maze.
+    {                                          //Files in the tiled format are read only where the rectangle is.
+        System.out.println("Enter the filename");
+        var filename = scanner.nextLine();
+        System.out.println("Enter the region (in the [first row] [last row] [first column] [last column] format)");
+        var split = scanner.nextLine().trim().split("\\s+");
+        if (split.length != 4)
+        {
+            System.out.println("Cannot display the region. Invalid region");
+            return;
+        }
+        var top = parseInt(split[0]);
+        var left = parseInt(split[2]);
+        try
+        {
+            var region = Model.loadRegion(Paths.get(filename), top, left,
+                                          parseInt(split[1]) - top + 1, parseInt(split[3]) - left + 1);
+            System.out.println("Rows " + top + "-" + (top + region.getHeight() - 1)
+                               + ", columns " + left + "-" + (left + region.getWidth() - 1));
+            region.render(System.out);
+            System.out.println();
+        }
+        catch (IOException e)
+        {
+            System.out.println("The file " + filename + " does not exist");
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private void print(Solution escape)       //Streams the picture of the maze to the console without building it as a String.
+    {
+        try
+        {
+            maze.render(System.out, escape);
+            System.out.println();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Cannot print the maze");
+        }
     }
 
 
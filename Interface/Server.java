@@ -0,0 +1,395 @@
+package Interface;
+
+import Maze.Cell;
+import Maze.Model;
+import Maze.Solution;
+import Solving.Strategy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A headless HTTP service that keeps many mazes at once. It listens on the
+ * loopback interface only. Mazes live in a concurrent registry under the
+ * ids the service assigns, so clients do not share any other state.
+ * <p>
+ * Endpoints, all answering in plain text:
+ * <ul>
+ * <li>{@code POST /mazes?height=H&width=W[&seed=S]} - generates a maze and returns its id.</li>
+ * <li>{@code GET /mazes/{id}[?solved=true&strategy=S]} - renders the maze, with the escape if solved.</li>
+ * <li>{@code GET /mazes/{id}/solution[?strategy=S&from=R,C&to=R,C]} - returns the length and the run-length moves
+ * of the escape, or of the path between two passages.</li>
+ * <li>{@code POST /mazes/{id}/save[?format=binary|text]} - saves the maze into the data directory and returns the file name.</li>
+ * <li>{@code DELETE /mazes/{id}} - forgets the maze.</li>
+ * </ul>
+ * Every exchange runs on its own virtual thread where the runtime has them
+ * and on a cached thread pool otherwise. Invalid requests get 400, unknown
+ * mazes 404, and requests failing for any other reason, including running
+ * out of memory, get 500. The registry keeps at most {@value #MAX_MAZES}
+ * mazes of {@value #MAX_TOTAL_SQUARES} squares in total; generating more
+ * gets 503 until some are deleted.
+ * <p>
+ * Start the JVM with {@code -Dsun.net.httpserver.nodelay=true}, otherwise
+ * the small replies wait for the delayed ACK of the client.
+ */
+public class Server
+{
+    public static final int DEFAULT_PORT = 8080;
+    public static final int MAX_MAZES = 10_000;
+    public static final long MAX_TOTAL_SQUARES = 1_000_000_000L;
+    private static final long MAX_SQUARES = 100_000_000L;  //The largest maze a client may generate.
+    private static final long MAX_NODE_SQUARES = 1_000_000L;   //The largest maze A_STAR_NODES may solve, it allocates objects per square.
+
+    private final Map<Long, Model> mazes = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Path directory;                           //Where saved mazes go.
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private int count;                                      //The mazes and their squares in the registry, guarded by this.
+    private long squares;
+
+    public Server(int port, Path directory) throws IOException
+    {
+        this.directory = directory;
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = newExecutor();
+        http.setExecutor(executor);
+        http.createContext("/mazes", this::handle);
+    }
+
+    public void start()
+    {
+        http.start();
+        System.out.println("Serving mazes on http://localhost:" + getPort() + "/mazes");
+    }
+
+    public void stop()
+    {
+        http.stop(0);
+        executor.shutdown();
+        try
+        {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort()
+    {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task. Virtual
+     * threads are looked up reflectively, so the service still runs on a
+     * cached platform thread pool with runtimes that do not have them.
+     */
+    static ExecutorService newExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            try
+            {
+                dispatch(exchange);
+            }
+            catch (NoSuchMazeException e)
+            {
+                reply(exchange, 404, e.getMessage());
+            }
+            catch (IllegalArgumentException e)
+            {
+                reply(exchange, 400, e.getMessage());
+            }
+            catch (RegistryFullException e)
+            {
+                reply(exchange, 503, e.getMessage());
+            }
+            catch (IOException | RuntimeException | OutOfMemoryError e)
+            {
+                fail(exchange, e);
+            }
+        }
+    }
+
+    private static void fail(HttpExchange exchange, Throwable e)   //Answers 500 unless the reply has already started.
+    {
+        System.err.println("Failed " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+        if (exchange.getResponseCode() != -1)
+            return;
+        try
+        {
+            reply(exchange, 500, "Internal error");
+        }
+        catch (IOException ignored)
+        {
+            //The client is gone.
+        }
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException
+    {
+        var parts = exchange.getRequestURI().getPath().split("/");     //"", "mazes", id, action
+        var method = exchange.getRequestMethod();
+        var query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (parts.length == 2 && method.equals("POST"))
+            generate(exchange, query);
+        else if (parts.length == 3 && method.equals("GET"))
+            render(exchange, find(parts[2]), query);
+        else if (parts.length == 3 && method.equals("DELETE"))
+            delete(exchange, parts[2]);
+        else if (parts.length == 4 && parts[3].equals("solution") && method.equals("GET"))
+            solve(exchange, find(parts[2]), query);
+        else if (parts.length == 4 && parts[3].equals("save") && method.equals("POST"))
+            save(exchange, parts[2], find(parts[2]), query);
+        else
+            reply(exchange, 404, "Unknown endpoint " + method + " " + exchange.getRequestURI().getPath());
+    }
+
+    private void generate(HttpExchange exchange, Map<String, String> query) throws IOException
+    {
+        var height = parseInt(query, "height");
+        var width = parseInt(query, "width");
+        if (height < 3 || width < 3 || (long) height * width > MAX_SQUARES)
+            throw new IllegalArgumentException("Cannot generate a maze. Invalid size " + height + "x" + width);
+        var seed = query.containsKey("seed") ? parseLong(query.get("seed")) : System.nanoTime();
+        var size = (long) height * width;
+        reserve(size);
+        Model maze;
+        try
+        {
+            maze = new Model(height, width, seed);
+        }
+        catch (RuntimeException | Error e)
+        {
+            release(size);
+            throw e;
+        }
+        var id = ids.incrementAndGet();
+        mazes.put(id, maze);
+        reply(exchange, 201, Long.toString(id));
+    }
+
+    private synchronized void reserve(long size)            //Makes room for a new maze in the registry.
+    {
+        if (count >= MAX_MAZES || squares + size > MAX_TOTAL_SQUARES)
+            throw new RegistryFullException();
+        count++;
+        squares += size;
+    }
+
+    private synchronized void release(long size)
+    {
+        count--;
+        squares -= size;
+    }
+
+    private void render(HttpExchange exchange, Model maze, Map<String, String> query) throws IOException
+    {
+        Solution escape = null;
+        if (Boolean.parseBoolean(query.get("solved")))
+            escape = maze.solve(parseStrategy(query, maze));
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody())
+        {
+            maze.render(body, escape);
+        }
+    }
+
+    private void solve(HttpExchange exchange, Model maze, Map<String, String> query) throws IOException
+    {
+        var start = parseCell(query, "from", maze, maze.getEntrance());
+        var end = parseCell(query, "to", maze, maze.getExit());
+        var escape = maze.solve(start, end, parseStrategy(query, maze));
+        if (escape.isEmpty())
+            reply(exchange, 200, "0\n");
+        else
+            reply(exchange, 200, escape.getLength() + "\n" + escape.getPath().toRunLength() + "\n");
+    }
+
+    private void save(HttpExchange exchange, String id, Model maze, Map<String, String> query) throws IOException
+    {
+        var format = query.getOrDefault("format", "binary");
+        var base = "maze-" + parseId(id);
+        String name;
+        if (format.equals("binary"))
+            name = base + Model.BINARY_EXTENSION;
+        else if (format.equals("text"))
+            name = base + ".txt";
+        else
+            throw new IllegalArgumentException("Unknown format " + format);
+        Files.createDirectories(directory);
+        maze.save(directory.resolve(name));
+        reply(exchange, 200, name);
+    }
+
+    private void delete(HttpExchange exchange, String id) throws IOException
+    {
+        var maze = mazes.remove(parseId(id));
+        if (maze == null)
+            throw new NoSuchMazeException(id);
+        release((long) maze.getHeight() * maze.getWidth());
+        maze.discard();
+        reply(exchange, 204, null);
+    }
+
+    private Model find(String id)
+    {
+        var maze = mazes.get(parseId(id));
+        if (maze == null)
+            throw new NoSuchMazeException(id);
+        return maze;
+    }
+
+    private static void reply(HttpExchange exchange, int status, String text) throws IOException
+    {
+        if (text == null)
+        {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static Map<String, String> parseQuery(String query)
+    {
+        var result = new HashMap<String, String>();
+        if (query == null || query.isEmpty())
+            return result;
+        for (var pair : query.split("&"))
+        {
+            var split = pair.split("=", 2);
+            result.put(URLDecoder.decode(split[0], StandardCharsets.UTF_8),
+                       split.length == 2 ? URLDecoder.decode(split[1], StandardCharsets.UTF_8) : "");
+        }
+        return result;
+    }
+
+    private static Strategy parseStrategy(Map<String, String> query, Model maze)
+    {
+        var name = query.get("strategy");
+        Strategy strategy;
+        try
+        {
+            strategy = name == null ? Strategy.A_STAR : Strategy.valueOf(name);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Unknown strategy " + name);
+        }
+        if (strategy == Strategy.A_STAR_NODES && (long) maze.getHeight() * maze.getWidth() > MAX_NODE_SQUARES)
+            throw new IllegalArgumentException("A_STAR_NODES solves mazes of up to " + MAX_NODE_SQUARES + " squares only");
+        return strategy;
+    }
+
+    private static Cell parseCell(Map<String, String> query, String name, Model maze, Cell fallback)   //Reads a passage as "row,column".
+    {
+        var value = query.get(name);
+        if (value == null)
+            return fallback;
+        var split = value.split(",", 2);
+        if (split.length != 2)
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        var row = parseInt(name, split[0]);
+        var column = parseInt(name, split[1]);
+        if (row < 0 || row >= maze.getHeight() || column < 0 || column >= maze.getWidth()
+            || maze.getGrid().isWall(row, column))
+            throw new IllegalArgumentException("The " + name + " square " + value + " is not a passage of the maze");
+        return maze.getCell(row, column);
+    }
+
+    private static int parseInt(Map<String, String> query, String name)
+    {
+        var value = query.get(name);
+        if (value == null)
+            throw new IllegalArgumentException("Missing parameter " + name);
+        return parseInt(name, value);
+    }
+
+    private static int parseInt(String name, String value)
+    {
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        }
+    }
+
+    private static long parseLong(String value)
+    {
+        try
+        {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid number " + value);
+        }
+    }
+
+    private static long parseId(String id)
+    {
+        try
+        {
+            return Long.parseLong(id);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new NoSuchMazeException(id);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class NoSuchMazeException extends IllegalArgumentException
+    {
+        NoSuchMazeException(String id)
+        {
+            super("There is no maze " + id);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class RegistryFullException extends IllegalStateException
+    {
+        RegistryFullException()
+        {
+            super("The service keeps too many mazes, delete some first");
+        }
+    }
+}
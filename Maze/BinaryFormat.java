@@ -0,0 +1,324 @@
+package Maze;
+
+import Solving.TreeIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * A versioned binary format of a maze. All numbers are little-endian.
+ * <p>
+ * The header takes {@value #HEADER_SIZE} bytes: the magic {@code MAZE},
+ * the version, flags, the height and the width, the entrance and the
+ * exit (row and column each), the length of the body in bytes and the
+ * CRC32 of the body. The rest of the header is reserved and zeroed. The
+ * entrance and the exit must be where {@link Model} puts them for the size.
+ * <p>
+ * The body stores one bit per square in row-major order, 1 for a wall
+ * and 0 for a passage, packed into longs starting from the lowest bit.
+ * The body starts at a multiple of 8 bytes, so {@link MappedGrid} can use
+ * it in place without reading it.
+ * <p>
+ * Optional sections follow the body in the order of their flags:
+ * {@link #FLAG_TREE_INDEX} - the {@link TreeIndex} of the maze, 2 bits per cell,
+ * {@link #FLAG_TERRAIN} - the {@link Terrain} of the maze: four bits per
+ * square packed into longs like the body, followed by their CRC32 as a long.
+ */
+public class BinaryFormat
+{
+    public static final int MAGIC = 0x455A414D;         //"MAZE" read as a little-endian int.
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int FLAG_TREE_INDEX = 1;
+    public static final int FLAG_TERRAIN = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;     //The size of the buffer used to move the body through a channel.
+
+    private BinaryFormat()
+    {
+    }
+
+    public static boolean isBinary(ByteBuffer prefix)   //Checks if the first bytes of a file start with the magic.
+    {
+        return prefix.remaining() >= 4
+            && prefix.order(ByteOrder.LITTLE_ENDIAN).getInt(prefix.position()) == MAGIC;
+    }
+
+    static long bodySize(int height, int width)         //The size of the body in bytes, padded to whole longs.
+    {
+        return ((long) height * width + 63) / 64 * 8;
+    }
+
+    public static void write(Model maze, WritableByteChannel channel) throws IOException
+    {
+        var grid = maze.grid;
+        var height = grid.getHeight();
+        var width = grid.getWidth();
+        var entrance = maze.getEntrance();
+        var exit = maze.getExit();
+
+        var crc = new CRC32();
+        var buffer = newBuffer();
+        new BodyWriter(grid, buffer, () -> {
+            buffer.flip();
+            crc.update(buffer);
+            buffer.clear();
+        }).run();
+
+        var header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        var terrain = maze.getTerrain();
+        var flags = (maze.hasTreeIndex() ? FLAG_TREE_INDEX : 0) | (terrain != null ? FLAG_TERRAIN : 0);
+        putHeader(header, flags, height, width, entrance, exit,
+                  bodySize(height, width), crc.getValue());
+        header.clear();
+        writeFully(channel, header);
+
+        new BodyWriter(grid, buffer, () -> {
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }).run();
+        if (maze.hasTreeIndex())
+            maze.getTreeIndex().write(channel);
+        if (terrain != null)
+            writeTerrain(terrain, channel, buffer);
+    }
+
+    private static void writeTerrain(Terrain terrain, WritableByteChannel channel, ByteBuffer buffer) throws IOException
+    {
+        var crc = new CRC32();
+        buffer.clear();
+        for (var word : terrain.words)
+        {
+            if (!buffer.hasRemaining())
+            {
+                buffer.flip();
+                crc.update(buffer.duplicate());
+                writeFully(channel, buffer);
+                buffer.clear();
+            }
+            buffer.putLong(word);
+        }
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        writeFully(channel, buffer);
+        buffer.clear();
+        buffer.putLong(crc.getValue()).flip();
+        writeFully(channel, buffer);
+    }
+
+    private static Terrain readTerrain(ReadableByteChannel channel, int height, int width) throws IOException
+    {
+        var terrain = new Terrain(height, width);
+        var crc = new CRC32();
+        var buffer = newBuffer();
+        var words = terrain.words;
+        for (int i = 0; i < words.length; )
+        {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), 8L * (words.length - i)));
+            readFully(channel, buffer);
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining())
+                words[i++] = buffer.getLong();
+        }
+        buffer.clear().limit(8);
+        readFully(channel, buffer);
+        if (buffer.flip().getLong() != crc.getValue())
+            throw invalid("The checksum of the terrain does not match");
+        for (int i = 0; i < height; i++)
+        {
+            for (int j = 0; j < width; j++)
+            {
+                if (terrain.getCost(i, j) < Terrain.MIN_COST)
+                    throw invalid("Invalid cost at row " + i + ", column " + j);
+            }
+        }
+        return terrain;
+    }
+
+    public static Model read(ReadableByteChannel channel) throws IOException
+    {
+        var header = readHeader(channel);
+        var height = header.height;
+        var width = header.width;
+        var bodySize = header.bodySize;
+
+        var grid = new PackedGrid(height, width);
+        var crc = new CRC32();
+        var buffer = newBuffer();
+        var squares = (long) height * width;
+        long index = 0;
+        long remaining = bodySize;
+        while (remaining > 0)
+        {
+            buffer.clear();
+            if (remaining < buffer.capacity())
+                buffer.limit((int) remaining);
+            readFully(channel, buffer);
+            remaining -= buffer.limit();
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining())
+            {
+                var word = buffer.getLong();
+                for (int bit = 0; bit < 64 && index < squares; bit++, index++)
+                {
+                    if ((word >>> bit & 1) != 0)
+                        grid.setType((int) (index / width), (int) (index % width), Cell.Type.WALL);
+                }
+            }
+        }
+        if (crc.getValue() != header.checksum)
+            throw invalid("The checksum does not match");
+        var treeIndex = (header.flags & FLAG_TREE_INDEX) != 0 ? TreeIndex.read(channel, grid) : null;
+        Grid weighted = grid;
+        if ((header.flags & FLAG_TERRAIN) != 0)
+            weighted = new WeightedGrid(grid, readTerrain(channel, height, width));
+        var maze = new Model(height, width, weighted);
+        if (treeIndex != null)
+            maze.setTreeIndex(treeIndex);
+        return maze;
+    }
+
+    static void putHeader(ByteBuffer header, int flags, int height, int width, Cell entrance, Cell exit,
+                          long bodySize, long checksum)        //Writes the header at the start of the buffer.
+    {
+        header.putInt(0, MAGIC)
+              .putInt(4, VERSION)
+              .putInt(8, flags)
+              .putInt(12, height)
+              .putInt(16, width)
+              .putInt(20, entrance.getRow())
+              .putInt(24, entrance.getColumn())
+              .putInt(28, exit.getRow())
+              .putInt(32, exit.getColumn())
+              .putLong(36, bodySize)
+              .putLong(44, checksum);
+    }
+
+    static Header readHeader(ReadableByteChannel channel) throws IOException    //Reads and checks the header.
+    {
+        var buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, buffer);
+        buffer.flip();
+        if (buffer.getInt() != MAGIC)
+            throw invalid("It is not a binary maze file");
+        var version = buffer.getInt();
+        if (version != VERSION)
+            throw invalid("Unsupported version " + version);
+        var header = new Header();
+        header.flags = buffer.getInt();
+        if ((header.flags & ~(FLAG_TREE_INDEX | FLAG_TERRAIN)) != 0)
+            throw invalid("Unsupported flags " + header.flags);
+        header.height = buffer.getInt();
+        header.width = buffer.getInt();
+        if (header.height < 3 || header.width < 3)
+            throw invalid("Invalid size " + header.height + "x" + header.width);
+        var entranceRow = buffer.getInt();
+        var entranceColumn = buffer.getInt();
+        if (entranceRow != 0 || entranceColumn != 1)
+            throw invalid("Invalid entrance " + entranceRow + ", " + entranceColumn);
+        var exitRow = buffer.getInt();
+        var exitColumn = buffer.getInt();           //The layout of Model: the exit is in the last row, under the last column of cells.
+        if (exitRow != header.height - 1 || exitColumn != header.width - 3 + header.width % 2)
+            throw invalid("Invalid exit " + exitRow + ", " + exitColumn);
+        header.bodySize = buffer.getLong();
+        header.checksum = buffer.getLong();
+        if (header.bodySize != bodySize(header.height, header.width))
+            throw invalid("Invalid body size " + header.bodySize);
+        return header;
+    }
+
+    static class Header
+    {
+        int flags;
+        int height;
+        int width;
+        long bodySize;
+        long checksum;
+    }
+
+    private static ByteBuffer newBuffer()
+    {
+        return ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static IllegalArgumentException invalid(String reason)
+    {
+        return new IllegalArgumentException("Cannot load the maze. " + reason);
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+                throw invalid("The file is truncated");
+        }
+    }
+
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private interface Flush
+    {
+        void flush() throws IOException;
+    }
+
+    private static class BodyWriter             //Packs the squares of a grid into longs and hands every full buffer to a flush action.
+    {
+        private final Grid grid;
+        private final ByteBuffer buffer;
+        private final Flush flush;
+
+        BodyWriter(Grid grid, ByteBuffer buffer, Flush flush)
+        {
+            this.grid = grid;
+            this.buffer = buffer;
+            this.flush = flush;
+        }
+
+        void run() throws IOException
+        {
+            var width = grid.getWidth();
+            var squares = (long) grid.getHeight() * width;
+            buffer.clear();
+            long word = 0;
+            int bit = 0;
+            for (int i = 0; i < grid.getHeight(); i++)
+            {
+                for (int j = 0; j < width; j++)
+                {
+                    if (grid.isWall(i, j))
+                        word |= 1L << bit;
+                    if (++bit == 64)
+                    {
+                        put(word);
+                        word = 0;
+                        bit = 0;
+                    }
+                }
+            }
+            if (squares % 64 != 0)
+                put(word);
+            if (buffer.position() > 0)
+                flush.flush();
+        }
+
+        private void put(long word) throws IOException
+        {
+            if (!buffer.hasRemaining())
+                flush.flush();
+            buffer.putLong(word);
+        }
+    }
+}
@@ -32,6 +32,11 @@ public class Cell
         return column;
     }
 
+    public Type getType()
+    {
+        return type;
+    }
+
     public boolean isPassage() 
     {
         return type == Type.PASSAGE;
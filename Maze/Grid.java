@@ -0,0 +1,27 @@
+package Maze;
+
+public interface Grid                                   //Storage of the squares of a maze. Implementations keep the types in a compact form
+{                                                       //and create Cell objects only when a caller asks for one.
+    int getHeight();
+
+    int getWidth();
+
+    Cell.Type getType(int row, int column);             //Returns the type of the square at the given coordinates.
+
+    void setType(int row, int column, Cell.Type type);  //Changes the type of the square at the given coordinates.
+
+    default boolean isWall(int row, int column)
+    {
+        return getType(row, column) == Cell.Type.WALL;
+    }
+
+    default int getCost(int row, int column)            //The cost of entering the square. Every step costs 1 unless the grid has a terrain.
+    {
+        return 1;
+    }
+
+    default Cell getCell(int row, int column)           //Materializes a square as a Cell object.
+    {
+        return new Cell(row, column, getType(row, column));
+    }
+}
@@ -0,0 +1,152 @@
+package Maze;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A grid stored in a file of the {@link BinaryFormat} and accessed through
+ * memory mapping, so the squares live in the page cache and not on the
+ * heap. The operating system loads pages when they are first touched and
+ * may drop clean pages under memory pressure.
+ * <p>
+ * A file can be larger than one {@link MappedByteBuffer} can address, so
+ * it is mapped as a sequence of segments of {@value #SEGMENT_SIZE} bytes.
+ * The header and the body are aligned to longs, so no long of the body
+ * crosses a segment boundary.
+ * <p>
+ * The format stores walls and passages only. An escape is an overlay of a
+ * {@link Solution} and is never written to the grid.
+ */
+public class MappedGrid implements Grid
+{
+    static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;  //The size of one mapping. A multiple of 8 below the 2 GB limit of a buffer.
+
+    private final int height;
+    private final int width;
+    private final MappedByteBuffer[] segments;
+
+    private MappedGrid(int height, int width, MappedByteBuffer[] segments)
+    {
+        this.height = height;
+        this.width = width;
+        this.segments = segments;
+    }
+
+    /**
+     * Creates a file of the given size where every square is a passage and
+     * maps it for writing. The header is written by {@link #finish} once
+     * the squares are in place.
+     */
+    static MappedGrid create(Path path, int height, int width) throws IOException
+    {
+        try (var channel = FileChannel.open(path, CREATE, READ, WRITE, TRUNCATE_EXISTING))
+        {
+            var size = BinaryFormat.HEADER_SIZE + BinaryFormat.bodySize(height, width);
+            return new MappedGrid(height, width, map(channel, FileChannel.MapMode.READ_WRITE, size));
+        }
+    }
+
+    /**
+     * Maps the body of a binary maze file for reading. Only the header is
+     * read and checked; the checksum of the body is not verified because
+     * that would read the whole file. Use {@link Model#load(Path)} to
+     * verify it.
+     */
+    static MappedGrid open(FileChannel channel, int height, int width)
+        throws IOException
+    {
+        var size = BinaryFormat.HEADER_SIZE + BinaryFormat.bodySize(height, width);
+        if (channel.size() < size)
+            throw new IllegalArgumentException("Cannot load the maze. The file is truncated");
+        return new MappedGrid(height, width, map(channel, FileChannel.MapMode.READ_ONLY, size));
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException
+    {
+        var segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++)
+        {
+            var position = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, position, Math.min(SEGMENT_SIZE, size - position));
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return segments;
+    }
+
+    /**
+     * Computes the checksum of the body, writes the header and flushes the
+     * mapping to the file. Called after generation.
+     */
+    void finish(Cell entrance, Cell exit) throws IOException
+    {
+        var crc = new CRC32();
+        var bodySize = BinaryFormat.bodySize(height, width);
+        for (int i = 0; i < segments.length; i++)
+        {
+            var body = segments[i].duplicate();
+            if (i == 0)
+                body.position(BinaryFormat.HEADER_SIZE);
+            crc.update(body);
+        }
+        var header = segments[0].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        BinaryFormat.putHeader(header, 0, height, width, entrance, exit, bodySize, crc.getValue());
+        for (var segment : segments)
+            segment.force();
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    @Override
+    public Cell.Type getType(int row, int column)
+    {
+        return isWall(row, column) ? Cell.Type.WALL : Cell.Type.PASSAGE;
+    }
+
+    @Override
+    public void setType(int row, int column, Cell.Type type)
+    {
+        if (type == Cell.Type.ESCAPE)
+            throw new IllegalArgumentException("A mapped grid stores only walls and passages");
+        var square = (long) row * width + column;
+        var offset = offset(square);
+        var segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+        var index = (int) (offset & (SEGMENT_SIZE - 1));
+        var word = segment.getLong(index);
+        var bit = 1L << (square & 63);
+        segment.putLong(index, type == Cell.Type.WALL ? word | bit : word & ~bit);
+    }
+
+    @Override
+    public boolean isWall(int row, int column)
+    {
+        var square = (long) row * width + column;
+        var offset = offset(square);
+        var word = segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & (SEGMENT_SIZE - 1)));
+        return (word >>> (square & 63) & 1) != 0;
+    }
+
+    private static long offset(long square)             //The position in the file of the long that holds a square.
+    {
+        return BinaryFormat.HEADER_SIZE + (square >>> 6 << 3);
+    }
+}
@@ -1,11 +1,30 @@
 package Maze;
 
+import Generation.ChunkedPassageTree;
+import Generation.Eller;
+import Generation.Generator;
 import Generation.PassageTree;
-import Solving.Fugitive;
+import Metrics.MazeMetrics;
+import Solving.Strategy;
+import Solving.TreeIndex;
 
-import java.util.function.Consumer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
-import static java.lang.Integer.parseInt;
 import static Maze.Cell.Type.PASSAGE;
 import static Maze.Cell.Type.WALL;
 
@@ -13,13 +32,45 @@ import static Maze.Cell.Type.WALL;
 public class Model
 {
 
+    public static final String BINARY_EXTENSION = ".maze";   //Files with this extension are saved in the binary format.
+    public static final String TILED_EXTENSION = ".tmaze";   //Files with this extension are saved in the tiled format.
+
     final int height;
     final int width;
-    final Cell[][] grid;
+    final Grid grid;
+
+    final long id;            //The identity of this maze in the solution cache. The grid does not change after construction.
 
-    boolean isSolved = false;
+    private volatile TreeIndex treeIndex;  //Built on demand or loaded with the maze.
+
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final SolutionCache SOLUTIONS = new SolutionCache(256L << 20);
 
     public Model(int height, int width) 
+    {
+        this(height, width, System.nanoTime());
+    }
+
+    public Model(int height, int width, long seed)      //Generates the same maze for the same seed.
+    {
+        this(height, width, new PassageTree(height, width, seed));
+    }
+
+    public Model(int height, int width, Generator generator)    //Generates the passages with the given generator, which must be created
+    {                                                           //for the same height and width.
+        this(checkSize(height, width), generator);
+    }
+
+    private Model(Grid grid, Generator generator)               //Generates the passages into an empty grid.
+    {
+        this.height = grid.getHeight();
+        this.width = grid.getWidth();
+        this.grid = grid;
+        id = IDS.incrementAndGet();
+        fillGrid(generator);
+    }
+
+    private static PackedGrid checkSize(int height, int width)
     {
         if (height < 3 || width < 3)
         {
@@ -27,10 +78,7 @@ public class Model
                 "Both the height and the width " +
                     "of the maze must be at least 3");
         }
-        this.height = height;
-        this.width = width;
-        grid = new Cell[height][width];
-        fillGrid();
+        return new PackedGrid(height, width);
     }
 
     public Model(int size) 
@@ -38,17 +86,17 @@ public class Model
         this(size, size);
     }
 
-    private void fillGrid()
+    private void fillGrid(Generator generator)
     {
         fillAlternately();
         fillGaps();
         makeEntranceAndExit();
-        generatePassages();
+        generatePassages(generator);
     }
 
     private void putCell(int row, int column, Cell.Type type) 
     {
-        grid[row][column] = new Cell(row, column, type);
+        grid.setType(row, column, type);
     }
 
     private void fillAlternately() 
@@ -100,103 +148,210 @@ public class Model
             putCell(height - 2, getExitColumn(), PASSAGE);
     }
 
-    private void generatePassages() 
+    private void generatePassages(Generator generator) 
     {
-        new PassageTree(height, width)
-            .generate()
-            .forEach(putCell());
+        generator.generate((row, column) -> putCell(row, column, PASSAGE));
     }
 
-    private Consumer<Cell> putCell() 
+    public String findEscape() 
     {
-        return cell -> grid[cell.getRow()][cell.getColumn()] = cell;
+        return findEscape(Strategy.A_STAR);
     }
 
-    
-    public String findEscape() 
+    public String findEscape(Strategy strategy)     //Solves the maze with the given strategy and returns its picture with the escape.
+    {
+        return toString(solve(strategy));
+    }
+
+    public Solution solve()
+    {
+        return solve(Strategy.A_STAR);
+    }
+
+    public Solution solve(Strategy strategy)        //Finds the escape from the entrance to the exit.
     {
-        if (!isSolved) 
+        return solve(getEntrance(), getExit(), strategy);
+    }
+
+    /**
+     * Finds a path between two squares. The maze is not changed: the path
+     * is returned as an overlay, and solutions are kept in a bounded LRU
+     * cache shared by all mazes, so repeated requests are not solved again.
+     * Safe to call from several threads.
+     *
+     * @param start    the square to find a path from
+     * @param end      the square to find a path to
+     * @param strategy the solver to use
+     * @return the path as an overlay, empty if there is none
+     * @throws IllegalArgumentException if a square is outside of the maze
+     */
+    public Solution solve(Cell start, Cell end, Strategy strategy)
+    {
+        checkSquare(start, "start");
+        checkSquare(end, "end");
+        var from = start.getRow() * width + start.getColumn();
+        var to = end.getRow() * width + end.getColumn();
+        return SOLUTIONS.get(id, from, to, strategy, () ->
+            new Solution(start, end, strategy.findPath(grid, from, to)));
+    }
+
+    private void checkSquare(Cell cell, String name)
+    {
+        if (cell.getRow() < 0 || cell.getRow() >= height || cell.getColumn() < 0 || cell.getColumn() >= width)
+            throw new IllegalArgumentException("The " + name + " " + cell.getRow() + "," + cell.getColumn()
+                                               + " is outside of the maze " + height + "x" + width);
+    }
+
+    public void discard()                           //Drops the cached solutions of this maze. Call it when the maze is no longer used.
+    {
+        SOLUTIONS.remove(id);
+    }
+
+    /**
+     * Returns the spanning-tree index of the maze rooted at the cell next to the entrance,
+     * building it on the first call. The index answers distance queries in
+     * O(log n) and path queries in time proportional to the path. It is
+     * saved with the maze in the binary format once built.
+     *
+     * @throws IllegalArgumentException if the maze has cycles or is not connected
+     */
+    public TreeIndex getTreeIndex()
+    {
+        var index = treeIndex;
+        if (index == null)
         {
-            new Fugitive(grid, getEntrance(), getExit())
-                .findEscape()
-                .forEach(putCell());
-            isSolved = true;
+            synchronized (this)
+            {
+                index = treeIndex;
+                if (index == null)
+                    treeIndex = index = TreeIndex.build(grid, 1, 1);
+            }
         }
-        return toString(true);
+        return index;
+    }
+
+    public boolean hasTreeIndex()
+    {
+        return treeIndex != null;
+    }
+
+    void setTreeIndex(TreeIndex treeIndex)
+    {
+        this.treeIndex = treeIndex;
+    }
+
+    public Cell getEntrance() 
+    {
+        return grid.getCell(0, 1);
+    }
+
+    public Cell getExit() 
+    {
+        return grid.getCell(height - 1, getExitColumn());
     }
 
-    private Cell getEntrance() 
+    /**
+     * Returns a maze with the same squares and the given costs of entering
+     * them. The costs are followed by the solvers that support them, shown
+     * by rendering and saved in the binary format.
+     */
+    public Model withTerrain(Terrain terrain)
     {
-        return grid[0][1];
+        var squares = grid instanceof WeightedGrid ? ((WeightedGrid) grid).getSquares() : grid;
+        var maze = new Model(height, width, new WeightedGrid(squares, terrain));
+        if (hasTreeIndex())
+            maze.setTreeIndex(treeIndex);
+        return maze;
     }
 
-    private Cell getExit() 
+    public Terrain getTerrain()                  //The costs of the squares or null if every step costs 1.
     {
-        return grid[height - 1][getExitColumn()];
+        return grid instanceof WeightedGrid ? ((WeightedGrid) grid).getTerrain() : null;
+    }
+
+    public long getCost(Solution escape)         //The total cost of a path: the sum of the costs of its squares after the start.
+    {
+        if (escape.isEmpty())
+            return 0;
+        var total = new long[]{-grid.getCost(escape.getStart().getRow(), escape.getStart().getColumn())};
+        escape.getPath().forEachSquare((row, column) -> total[0] += grid.getCost(row, column));
+        return total[0];
+    }
+
+    public Cell getCell(int row, int column)     //Creates a Cell object for the square at the given coordinates.
+    {
+        return grid.getCell(row, column);
+    }
+
+    public Grid getGrid()                        //The squares of the maze. Meant for solvers and tools, the maze should not be changed through it.
+    {
+        return grid;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public int getWidth()
+    {
+        return width;
     }
 
     
-    private String toString(boolean showEscape) 
+    private String toString(Solution escape) 
     {
-        var sb = new StringBuilder();
-        for (var row : grid)
+        var writer = new StringWriter();
+        try
         {
-            for (var cell : row) 
-            {
-                if (cell.isWall()) 
-                {
-                    sb.append("██");
-                } 
-              else if (showEscape && cell.isEscape()) {
-                    sb.append("▓▓");
-                } else {
-                    sb.append("  ");
-                }
-            }
-            sb.append('\n');
+            render(writer, escape);
         }
-        return sb.toString();
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    public void render(Writer writer, Solution escape) throws IOException       //Streams the picture of the maze row by row. The escape may be null.
+    {
+        new Renderer(grid, escape).render(writer);
+    }
+
+    public void render(OutputStream out, Solution escape) throws IOException
+    {
+        new Renderer(grid, escape).render(out);
+    }
+
+    public void render(WritableByteChannel channel, Solution escape) throws IOException
+    {
+        new Renderer(grid, escape).render(channel);
     }
 
     public String toString() 
     {
-        return toString(false);
+        return toString(null);
     }
 
 
-    public static Model load(String str) {
-        try {
-            var whole = str.split("\n");
-            var size = whole[0].split(" ");
-            var height = parseInt(size[0]);
-            var width = parseInt(size[1]);
-            var grid = new Cell[height][width];
-            for (int i = 0; i < height; i++) {
-                var row = whole[i + 1].split(" ");
-                for (int j = 0; j < width; j++)
-                    grid[i][j] = new Cell(
-                        i, j, intToType(parseInt(row[j]))
-                    );
-            }
-            return new Model(height, width, grid);
-        } catch (Exception e) {
-            throw new IllegalArgumentException(
-                "Cannot load the maze. " +
-                    "It has an invalid format"
-            );
+    public static Model load(String str)                //Parses a maze in the text format.
+    {
+        try
+        {
+            return TextFormat.read(new StringReader(str));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private Model(int height, int width, Cell[][] grid) 
+    Model(int height, int width, Grid grid) 
     {
         this.height = height;
         this.width = width;
         this.grid = grid;
-    }
-
-    private static Cell.Type intToType(int val) 
-    {
-        return val == 1 ? WALL : PASSAGE;
+        id = IDS.incrementAndGet();
     }
 
     public String export()
@@ -204,18 +359,172 @@ public class Model
         var sb = new StringBuilder();
         sb.append(height).append(' ')
           .append(width).append('\n');
-        for (var row : grid) 
+        for (int i = 0; i < height; i++) 
         {
-            for (var cell : row)
-                sb.append(typeToInt(cell))
+            for (int j = 0; j < width; j++)
+                sb.append(typeToInt(i, j))
                   .append(' ');
             sb.append('\n');
         }
         return sb.toString();
     }
   
-    private int typeToInt(Cell cell) 
+    private int typeToInt(int row, int column) 
+    {
+        return grid.isWall(row, column) ? 1 : 0;
+    }
+
+    public static Model load(Path path) throws IOException      //Loads a maze from a file in the binary or the text format. The format is detected
+    {                                                           //by the first bytes of the file. The bytes and the time are reported to MazeMetrics.
+        try (var channel = FileChannel.open(path, READ))
+        {
+            var timed = MazeMetrics.serializationActive();
+            var begin = timed ? System.nanoTime() : 0;
+            var prefix = ByteBuffer.allocate(4);
+            while (prefix.hasRemaining())
+            {
+                if (channel.read(prefix) < 0)
+                    break;
+            }
+            prefix.flip();
+            channel.position(0);
+            var format = BinaryFormat.isBinary(prefix) ? "binary" : TiledFormat.isTiled(prefix) ? "tiled" : "text";
+            Model maze;
+            if (format.equals("binary"))
+                maze = BinaryFormat.read(channel);
+            else if (format.equals("tiled"))
+                maze = TiledFormat.read(channel);
+            else
+                maze = TextFormat.read(channel);
+            if (timed)
+                MazeMetrics.recordSerialization(format, false, channel.size(), System.nanoTime() - begin);
+            return maze;
+        }
+    }
+
+    /**
+     * Creates a maze that is defined only by its size and the seed. Its
+     * chunks are generated when they are first read and kept in a bounded
+     * cache, see {@link VirtualGrid}. The maze is the same as the one
+     * generated with a {@link ChunkedPassageTree} of the same seed.
+     */
+    public static Model virtual(int height, int width, long seed)
+    {
+        return new Model(height, width, new VirtualGrid(height, width, seed));
+    }
+
+    public static Model virtual(int height, int width, long seed, int chunkSize, int cachedChunks)
+    {
+        return new Model(height, width, new VirtualGrid(height, width, seed, chunkSize, cachedChunks));
+    }
+
+    /**
+     * Generates a maze straight into a memory-mapped file of the binary
+     * format with {@link Eller}, which keeps O(width) state, so neither the
+     * grid nor the generator has to fit on the heap. The same seed gives the
+     * same maze as {@code Eller} writes. The returned maze reads and writes
+     * the file through the mapping.
+     */
+    public static Model create(Path path, int height, int width, long seed) throws IOException
+    {
+        return create(path, height, width, new Eller(height, width, seed));
+    }
+
+    /**
+     * Generates a maze straight into a memory-mapped file of the binary
+     * format with the given generator, which must be created for the same
+     * height and width. Most generators keep state for every cell on the
+     * heap; {@link #create(Path, int, int, long)} does not.
+     */
+    public static Model create(Path path, int height, int width, Generator generator) throws IOException
+    {
+        if (height < 3 || width < 3)
+        {
+            throw new IllegalArgumentException(
+                "Both the height and the width " +
+                    "of the maze must be at least 3");
+        }
+        var grid = MappedGrid.create(path, height, width);
+        var maze = new Model(grid, generator);
+        grid.finish(maze.getEntrance(), maze.getExit());
+        return maze;
+    }
+
+    /**
+     * Opens a maze saved in the binary format by mapping the file instead
+     * of reading it. Only the header is read, so it takes about the same
+     * time for any size; the squares are paged in when they are first
+     * used. The checksum and a saved tree index are not read.
+     *
+     * @throws IllegalArgumentException if the maze has a terrain: it would
+     *                                  be solved with unit costs and lost on
+     *                                  the next save, use {@link #load(Path)}
+     */
+    public static Model open(Path path) throws IOException
     {
-        return cell.isWall() ? 1 : 0;
+        try (var channel = FileChannel.open(path, READ))
+        {
+            var header = BinaryFormat.readHeader(channel);
+            if ((header.flags & BinaryFormat.FLAG_TERRAIN) != 0)
+                throw new IllegalArgumentException("The maze in " + path + " has a terrain, which cannot be mapped; load it instead");
+            return new Model(header.height, header.width, MappedGrid.open(channel, header.height, header.width));
+        }
+    }
+
+    /**
+     * Loads only a rectangle of a saved maze, clipped to the maze. A file in
+     * the tiled format is read only where its tiles overlap the rectangle,
+     * a binary file is mapped and only the rows of the rectangle are paged
+     * in, and a file in the text format is parsed completely.
+     */
+    public static Viewport loadRegion(Path path, int top, int left, int height, int width) throws IOException
+    {
+        try (var channel = FileChannel.open(path, READ))
+        {
+            var prefix = ByteBuffer.allocate(4);
+            while (prefix.hasRemaining())
+            {
+                if (channel.read(prefix) < 0)
+                    break;
+            }
+            prefix.flip();
+            channel.position(0);
+            if (TiledFormat.isTiled(prefix))
+                return TiledFormat.readRegion(channel, top, left, height, width);
+            if (!BinaryFormat.isBinary(prefix))
+                return Viewport.of(TextFormat.read(channel).grid, top, left, height, width);
+        }
+        return Viewport.of(open(path).grid, top, left, height, width);
+    }
+
+    /**
+     * Saves the maze in the binary format if the file name ends with
+     * {@link #BINARY_EXTENSION}, in the tiled format if it ends with
+     * {@link #TILED_EXTENSION} and in the text format otherwise. Only the
+     * binary format keeps the terrain.
+     *
+     * @throws IllegalArgumentException if the maze has a terrain and the
+     *                                  format is not binary; the file is not touched
+     */
+    public void save(Path path) throws IOException
+    {
+        var name = path.toString();
+        var format = name.endsWith(BINARY_EXTENSION) ? "binary" : name.endsWith(TILED_EXTENSION) ? "tiled" : "text";
+        if (getTerrain() != null && !format.equals("binary"))
+            throw new IllegalArgumentException("Cannot save a weighted maze in the " + format
+                                               + " format, it would lose the terrain. Use " + BINARY_EXTENSION);
+        try (var channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING))
+        {
+            var timed = MazeMetrics.serializationActive();
+            var begin = timed ? System.nanoTime() : 0;
+            if (format.equals("binary"))
+                BinaryFormat.write(this, channel);
+            else if (format.equals("tiled"))
+                TiledFormat.write(this, channel, TiledFormat.DEFAULT_TILE_SIZE);
+            else
+                TextFormat.write(this, channel);
+            if (timed)
+                MazeMetrics.recordSerialization(format, true, channel.size(), System.nanoTime() - begin);
+        }
     }
 }
@@ -0,0 +1,72 @@
+package Maze;
+
+public class PackedGrid implements Grid          //A grid that stores every square in 2 bits of a long[] in row-major order.
+{                                                //The bits hold the ordinal of the square type: 0 - passage, 1 - wall, 2 - escape.
+
+    private static final int BITS = 2;                          //The number of bits per square.
+    private static final long MASK = (1L << BITS) - 1;
+    private static final Cell.Type[] TYPES = Cell.Type.values();
+
+    private final int height;
+    private final int width;
+    private final long[] words;
+
+    public PackedGrid(int height, int width)     //Creates a grid where every square is a passage.
+    {
+        var bits = (long) height * width * BITS;
+        var length = (bits + Long.SIZE - 1) / Long.SIZE;
+        if (length > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalArgumentException(
+                "The maze " + height + "x" + width + " is too large");
+        }
+        this.height = height;
+        this.width = width;
+        words = new long[(int) length];
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    private long bitIndex(int row, int column)
+    {
+        return ((long) row * width + column) * BITS;
+    }
+
+    @Override
+    public Cell.Type getType(int row, int column)
+    {
+        var bit = bitIndex(row, column);
+        return TYPES[(int) ((words[(int) (bit >>> 6)] >>> (bit & 63)) & MASK)];
+    }
+
+    @Override
+    public void setType(int row, int column, Cell.Type type)
+    {
+        var bit = bitIndex(row, column);
+        var word = (int) (bit >>> 6);
+        var shift = bit & 63;
+        words[word] = (words[word] & ~(MASK << shift)) | ((long) type.ordinal() << shift);
+    }
+
+    @Override
+    public boolean isWall(int row, int column)          //Checks the bits directly without decoding the type.
+    {
+        var bit = bitIndex(row, column);
+        return ((words[(int) (bit >>> 6)] >>> (bit & 63)) & MASK) == 1;
+    }
+
+    public long sizeInBytes()                           //Returns the approximate heap footprint of this grid.
+    {
+        return 16 + 8L * words.length;
+    }
+}
@@ -0,0 +1,140 @@
+package Maze;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+public class Renderer                   //Streams the picture of a grid row by row, two characters per square, optionally with an escape
+{                                       //overlay. Every row is encoded into a reusable buffer, so the whole picture never exists in memory at once.
+                                        //Passages of a weighted grid are shaded by their cost: light up to ROUGH_COST and dark above it.
+
+    private static final String WALL = "██";
+    private static final String ESCAPE = "▓▓";
+    private static final String PASSAGE = "  ";
+    private static final String ROUGH = "░░";
+    private static final String STEEP = "▒▒";
+    private static final int ROUGH_COST = 7;
+
+    private static final byte[] WALL_BYTES = WALL.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ESCAPE_BYTES = ESCAPE.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PASSAGE_BYTES = PASSAGE.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ROUGH_BYTES = ROUGH.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STEEP_BYTES = STEEP.getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_SQUARE_BYTES = Math.max(Math.max(Math.max(WALL_BYTES.length, ESCAPE_BYTES.length), PASSAGE_BYTES.length),
+                                                         Math.max(ROUGH_BYTES.length, STEEP_BYTES.length));
+
+    private final Grid grid;
+    private final Solution escape;      //The overlay to draw or null.
+    private final boolean weighted;
+    private long[] path;                //The squares of the escape in the order of drawing, built for every picture and dropped after it.
+    private int next;                   //The first square of the path that was not passed yet.
+
+    public Renderer(Grid grid, Solution escape)
+    {
+        this.grid = grid;
+        this.escape = escape;
+        weighted = grid instanceof WeightedGrid;
+    }
+
+    public Renderer(Grid grid)
+    {
+        this(grid, null);
+    }
+
+    public void render(WritableByteChannel channel) throws IOException
+    {
+        startPath();
+        var row = ByteBuffer.allocate(rowCapacity());
+        for (int i = 0; i < grid.getHeight(); i++)
+        {
+            row.clear();
+            encodeRow(i, row);
+            row.flip();
+            while (row.hasRemaining())
+                channel.write(row);
+        }
+        path = null;
+    }
+
+    public void render(OutputStream out) throws IOException
+    {
+        startPath();
+        var row = ByteBuffer.allocate(rowCapacity());
+        for (int i = 0; i < grid.getHeight(); i++)
+        {
+            row.clear();
+            encodeRow(i, row);
+            out.write(row.array(), 0, row.position());
+        }
+        path = null;
+        out.flush();
+    }
+
+    public void render(Writer writer) throws IOException
+    {
+        startPath();
+        var row = new char[2 * grid.getWidth() + 1];
+        row[row.length - 1] = '\n';
+        for (int i = 0; i < grid.getHeight(); i++)
+        {
+            for (int j = 0; j < grid.getWidth(); j++)
+                square(i, j).getChars(0, 2, row, 2 * j);
+            writer.write(row);
+        }
+        path = null;
+        writer.flush();
+    }
+
+    private void startPath()
+    {
+        path = escape == null ? null : escape.sortedSquares();
+        next = 0;
+    }
+
+    private boolean onPath(int row, int column)     //Squares are asked in the order of drawing, so the path is passed only once.
+    {
+        if (path == null)
+            return false;
+        var square = (long) row << 32 | column;
+        while (next < path.length && path[next] < square)
+            next++;
+        return next < path.length && path[next] == square;
+    }
+
+    private int rowCapacity()
+    {
+        return MAX_SQUARE_BYTES * grid.getWidth() + 1;
+    }
+
+    private void encodeRow(int row, ByteBuffer buffer)
+    {
+        for (int j = 0; j < grid.getWidth(); j++)
+            buffer.put(squareBytes(row, j));
+        buffer.put((byte) '\n');
+    }
+
+    private String square(int row, int column)
+    {
+        if (grid.isWall(row, column))
+            return WALL;
+        if (onPath(row, column))
+            return ESCAPE;
+        if (weighted && grid.getCost(row, column) > Terrain.MIN_COST)
+            return grid.getCost(row, column) > ROUGH_COST ? STEEP : ROUGH;
+        return PASSAGE;
+    }
+
+    private byte[] squareBytes(int row, int column)
+    {
+        if (grid.isWall(row, column))
+            return WALL_BYTES;
+        if (onPath(row, column))
+            return ESCAPE_BYTES;
+        if (weighted && grid.getCost(row, column) > Terrain.MIN_COST)
+            return grid.getCost(row, column) > ROUGH_COST ? STEEP_BYTES : ROUGH_BYTES;
+        return PASSAGE_BYTES;
+    }
+}
@@ -0,0 +1,59 @@
+package Maze;
+
+import Solving.CompactPath;
+
+import java.util.Arrays;
+
+public final class Solution             //An immutable overlay with the squares of one escape path. The maze itself is never changed,
+{                                       //so any number of solutions can be rendered over the same grid.
+
+    private final Cell start;
+    private final Cell end;
+    private final CompactPath path;     //The only copy of the squares. An overlay for drawing is built from it by the renderer.
+
+    Solution(Cell start, Cell end, CompactPath path)
+    {
+        this.start = start;
+        this.end = end;
+        this.path = path;
+    }
+
+    public Cell getStart()
+    {
+        return start;
+    }
+
+    public Cell getEnd()
+    {
+        return end;
+    }
+
+    public CompactPath getPath()
+    {
+        return path;
+    }
+
+    public int getLength()              //The number of squares on the path, 0 if there is no path.
+    {
+        return path.getLength();
+    }
+
+    public boolean isEmpty()
+    {
+        return path.isEmpty();
+    }
+
+    long[] sortedSquares()              //The squares of the path as row << 32 | column in ascending order, so in the order of drawing.
+    {
+        var squares = new long[getLength()];
+        var count = new int[1];
+        path.forEachSquare((row, column) -> squares[count[0]++] = (long) row << 32 | column);
+        Arrays.sort(squares);
+        return squares;
+    }
+
+    long sizeInBytes()
+    {
+        return 96 + path.getSteps() / 4;
+    }
+}
@@ -0,0 +1,109 @@
+package Maze;
+
+import Solving.Strategy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A bounded least-recently-used cache of solutions keyed by the identity of
+ * a maze, the endpoints and the strategy. The bound is the total size of the
+ * cached overlays in bytes. All methods are thread-safe; a solution is
+ * computed outside of the lock, so a slow solve does not block readers of
+ * other entries.
+ */
+class SolutionCache
+{
+    private final long maxBytes;
+    private long bytes;
+    private final LinkedHashMap<Key, Solution> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    SolutionCache(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+    }
+
+    Solution get(long mazeId, int start, int end, Strategy strategy, Supplier<Solution> solve)
+    {
+        var key = new Key(mazeId, start, end, strategy);
+        synchronized (this)
+        {
+            var cached = entries.get(key);
+            if (cached != null)
+                return cached;
+        }
+        var solution = solve.get();
+        synchronized (this)
+        {
+            var previous = entries.putIfAbsent(key, solution);
+            if (previous != null)
+                return previous;
+            bytes += solution.sizeInBytes();
+            evict();
+            return solution;
+        }
+    }
+
+    synchronized void remove(long mazeId)       //Drops every solution of a maze.
+    {
+        var iterator = entries.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            var entry = iterator.next();
+            if (entry.getKey().mazeId == mazeId)
+            {
+                bytes -= entry.getValue().sizeInBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evict()                        //Removes the least recently used entries until the cache fits, always keeping the newest one.
+    {
+        var iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && entries.size() > 1)
+        {
+            Map.Entry<Key, Solution> eldest = iterator.next();
+            bytes -= eldest.getValue().sizeInBytes();
+            iterator.remove();
+        }
+    }
+
+    private static final class Key
+    {
+        private final long mazeId;
+        private final int start;
+        private final int end;
+        private final Strategy strategy;
+
+        Key(long mazeId, int start, int end, Strategy strategy)
+        {
+            this.mazeId = mazeId;
+            this.start = start;
+            this.end = end;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            var key = (Key) o;
+            return mazeId == key.mazeId &&
+                start == key.start &&
+                end == key.end &&
+                strategy == key.strategy;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            var hash = Long.hashCode(mazeId);
+            hash = 31 * hash + start;
+            hash = 31 * hash + end;
+            return 31 * hash + strategy.hashCode();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package Maze;
+
+import Generation.SplitMix;
+
+import java.util.Arrays;
+
+/**
+ * Traversal costs of the squares of a maze in the range [1, {@value #MAX_COST}],
+ * four bits per square packed into longs in row-major order. Entering a
+ * square costs its value; the costs of walls are kept but never used.
+ */
+public class Terrain
+{
+    public static final int MIN_COST = 1;
+    public static final int MAX_COST = 15;
+    static final int BITS = 4;
+
+    private final int height;
+    private final int width;
+    final long[] words;
+
+    public Terrain(int height, int width)       //Creates a terrain where every square costs MIN_COST.
+    {
+        var length = ((long) height * width + 15) / 16;
+        if (length > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("The terrain " + height + "x" + width + " is too large");
+        this.height = height;
+        this.width = width;
+        words = new long[(int) length];
+        Arrays.fill(words, 0x1111111111111111L);
+    }
+
+    /**
+     * Creates a random terrain of patches: the maze is split into square
+     * patches of the given side, every patch gets a random base cost and
+     * every square a small random deviation from it.
+     */
+    public static Terrain random(int height, int width, long seed, int patch, int maxCost)
+    {
+        if (maxCost < MIN_COST || maxCost > MAX_COST || patch < 1)
+            throw new IllegalArgumentException("Invalid terrain parameters");
+        var terrain = new Terrain(height, width);
+        var random = new SplitMix(seed);
+        var patchColumns = (width + patch - 1) / patch;
+        for (int i = 0; i < height; i++)
+        {
+            for (int j = 0; j < width; j++)
+            {
+                var base = (int) Long.remainderUnsigned(SplitMix.mix(seed ^ ((long) (i / patch) * patchColumns + j / patch)), maxCost) + 1;
+                var cost = base + random.nextInt(3) - 1;
+                terrain.setCost(i, j, Math.max(MIN_COST, Math.min(maxCost, cost)));
+            }
+        }
+        return terrain;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getCost(int row, int column)
+    {
+        var square = (long) row * width + column;
+        return (int) (words[(int) (square >>> 4)] >>> ((square & 15) << 2)) & 15;
+    }
+
+    public void setCost(int row, int column, int cost)
+    {
+        if (cost < MIN_COST || cost > MAX_COST)
+            throw new IllegalArgumentException("The cost " + cost + " is not in [" + MIN_COST + ", " + MAX_COST + "]");
+        var square = (long) row * width + column;
+        var word = (int) (square >>> 4);
+        var shift = (square & 15) << 2;
+        words[word] = words[word] & ~(15L << shift) | (long) cost << shift;
+    }
+
+    public long sizeInBytes()                   //Returns the approximate heap footprint of this terrain.
+    {
+        return 16 + 8L * words.length;
+    }
+}
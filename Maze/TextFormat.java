@@ -0,0 +1,249 @@
+package Maze;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A streaming parser of the text format written by {@link Model#export()}:
+ * the height and the width on the first line and then one line per row
+ * with a number per square separated by spaces, 1 for a wall and anything
+ * else for a passage.
+ * <p>
+ * The input is read through a fixed buffer one character at a time, so no
+ * String is created per line or per square. Malformed input is reported
+ * with the row and the column of the square where parsing stopped. The
+ * output is written row by row through a reused buffer in the same way.
+ */
+public class TextFormat
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int EOF = -1;
+
+    private final Input input;
+    private int next;                   //The character after the last consumed one.
+
+    private TextFormat(Input input) throws IOException
+    {
+        this.input = input;
+        next = input.read();
+    }
+
+    public static Model read(Reader reader) throws IOException
+    {
+        return new TextFormat(new CharInput(reader)).parse();
+    }
+
+    public static Model read(InputStream stream) throws IOException
+    {
+        return read(Channels.newChannel(stream));
+    }
+
+    public static Model read(ReadableByteChannel channel) throws IOException
+    {
+        return new TextFormat(new ByteInput(channel)).parse();
+    }
+
+    public static void write(Model maze, WritableByteChannel channel) throws IOException     //Writes the same text as Model.export().
+    {
+        var grid = maze.getGrid();
+        var width = grid.getWidth();
+        var buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, 2 * width + 1));
+        buffer.put((grid.getHeight() + " " + width + "\n").getBytes(StandardCharsets.US_ASCII));
+        for (int i = 0; i < grid.getHeight(); i++)
+        {
+            if (buffer.remaining() < 2 * width + 1)
+            {
+                buffer.flip();
+                BinaryFormat.writeFully(channel, buffer);
+                buffer.clear();
+            }
+            for (int j = 0; j < width; j++)
+                buffer.put(grid.isWall(i, j) ? (byte) '1' : (byte) '0').put((byte) ' ');
+            buffer.put((byte) '\n');
+        }
+        buffer.flip();
+        BinaryFormat.writeFully(channel, buffer);
+    }
+
+    private Model parse() throws IOException
+    {
+        skipSpaces();
+        var height = readHeaderNumber("height");
+        skipSpaces();
+        var width = readHeaderNumber("width");
+        skipSpaces();
+        if (next != '\n')
+            throw invalid("Unexpected " + describe(next) + " after the size");
+        if (height < 3 || width < 3)
+            throw invalid("Invalid size " + height + "x" + width);
+        advance();
+
+        var grid = new PackedGrid(height, width);
+        for (int i = 0; i < height; i++)
+        {
+            if (next == EOF)
+                throw invalid("The file ends before row " + i + ", expected " + height + " rows");
+            for (int j = 0; j < width; j++)
+            {
+                skipSpaces();
+                if (next == '\n' || next == EOF)
+                    throw invalid("Row " + i + " ends after " + j + " squares, expected " + width);
+                if (readSquare(i, j) == 1)
+                    grid.setType(i, j, Cell.Type.WALL);
+            }
+            skipLine();
+        }
+        return new Model(height, width, grid);
+    }
+
+    private int readHeaderNumber(String name) throws IOException
+    {
+        if (!isDigit(next))
+            throw invalid("Expected the " + name + " but found " + describe(next));
+        long value = 0;
+        while (isDigit(next))
+        {
+            value = value * 10 + (next - '0');
+            if (value > Integer.MAX_VALUE)
+                throw invalid("The " + name + " is too large");
+            advance();
+        }
+        return (int) value;
+    }
+
+    private int readSquare(int row, int column) throws IOException  //Reads an integer and returns 1 for a wall or 0 for a passage.
+    {
+        var negative = next == '-';
+        if (negative)
+            advance();
+        if (!isDigit(next))
+            throw invalidSquare(row, column);
+        var value = 0;
+        while (isDigit(next))
+        {
+            value = Math.min(value * 10 + next - '0', 10);  //Saturates, only the value matters whether it is 1.
+            advance();
+        }
+        if (!isSpace(next) && next != '\n' && next != EOF)
+            throw invalidSquare(row, column);
+        return !negative && value == 1 ? 1 : 0;
+    }
+
+    private void skipSpaces() throws IOException
+    {
+        while (isSpace(next))
+            advance();
+    }
+
+    private void skipLine() throws IOException      //Skips the rest of a row. Extra squares are ignored like the original format did.
+    {
+        while (next != '\n' && next != EOF)
+            advance();
+        if (next == '\n')
+            advance();
+    }
+
+    private void advance() throws IOException
+    {
+        next = input.read();
+    }
+
+    private static boolean isDigit(int c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(int c)
+    {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static String describe(int c)
+    {
+        if (c == EOF)
+            return "the end of the file";
+        if (c == '\n')
+            return "the end of the line";
+        return "'" + (char) c + "'";
+    }
+
+    private IllegalArgumentException invalidSquare(int row, int column)
+    {
+        return invalid("Invalid square " + describe(next) + " at row " + row + ", column " + column);
+    }
+
+    private static IllegalArgumentException invalid(String reason)
+    {
+        return new IllegalArgumentException("Cannot load the maze. " + reason);
+    }
+
+    private interface Input
+    {
+        int read() throws IOException;      //Returns the next character or EOF.
+    }
+
+    private static class ByteInput implements Input     //Reads single-byte characters from a channel through a reusable buffer.
+    {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        ByteInput(ReadableByteChannel channel)
+        {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (!buffer.hasRemaining())
+            {
+                buffer.clear();
+                int count;
+                do
+                {
+                    count = channel.read(buffer);
+                } while (count == 0);
+                buffer.flip();
+                if (count < 0)
+                    return EOF;
+            }
+            return buffer.get() & 0xFF;
+        }
+    }
+
+    private static class CharInput implements Input     //Reads characters from a reader through a reusable buffer.
+    {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        CharInput(Reader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (position == limit)
+            {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit < 0)
+                {
+                    limit = 0;
+                    return EOF;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package Maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A tiled and indexed binary format of a maze that allows reading any
+ * rectangle without reading the rest of the file. All numbers are
+ * little-endian.
+ * <p>
+ * The header takes {@value #HEADER_SIZE} bytes: the magic {@code MZTL},
+ * the version, the height, the width and the side of a tile. The rest of
+ * the header is reserved and zeroed. The maze is split into square tiles
+ * in row-major order; the tiles on the right and the bottom edges may be
+ * smaller.
+ * <p>
+ * The tile offset table follows the header: one long per tile with the
+ * position of the tile in the file and one more long with the end of the
+ * last tile, so the length of a tile is the difference of two neighbouring
+ * entries. Every tile stores one bit per square in row-major order inside
+ * the tile, 1 for a wall, deflated with the zlib wrapper, whose checksum
+ * detects a damaged tile.
+ */
+public class TiledFormat
+{
+    public static final int MAGIC = 0x4C545A4D;         //"MZTL" read as a little-endian int.
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    private final int height;
+    private final int width;
+    private final int tileSize;
+    private final int tileRows;
+    private final int tileColumns;
+
+    private TiledFormat(int height, int width, int tileSize)
+    {
+        this.height = height;
+        this.width = width;
+        this.tileSize = tileSize;
+        tileRows = (height + tileSize - 1) / tileSize;
+        tileColumns = (width + tileSize - 1) / tileSize;
+    }
+
+    public static boolean isTiled(ByteBuffer prefix)    //Checks if the first bytes of a file start with the magic.
+    {
+        return prefix.remaining() >= 4
+            && prefix.order(ByteOrder.LITTLE_ENDIAN).getInt(prefix.position()) == MAGIC;
+    }
+
+    public static void write(Model maze, SeekableByteChannel channel, int tileSize) throws IOException
+    {
+        var grid = maze.grid;
+        if (tileSize < 8 || tileSize > 1 << 14)
+            throw new IllegalArgumentException("Invalid tile size " + tileSize);
+        var format = new TiledFormat(grid.getHeight(), grid.getWidth(), tileSize);
+        var tiles = (long) format.tileRows * format.tileColumns;
+        var offsets = ByteBuffer.allocate(Math.toIntExact(8 * (tiles + 1))).order(ByteOrder.LITTLE_ENDIAN);
+        var start = channel.position();
+        var position = start + HEADER_SIZE + offsets.capacity();
+
+        channel.position(position);
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        var raw = new byte[(tileSize * tileSize + 7) / 8];
+        var compressed = ByteBuffer.allocate(raw.length + 64);
+        for (int tileRow = 0; tileRow < format.tileRows; tileRow++)
+        {
+            for (int tileColumn = 0; tileColumn < format.tileColumns; tileColumn++)
+            {
+                offsets.putLong(position - start);
+                var length = format.pack(grid, tileRow, tileColumn, raw);
+                deflater.reset();
+                deflater.setInput(raw, 0, length);
+                deflater.finish();
+                while (!deflater.finished())
+                {
+                    compressed.clear();
+                    deflater.deflate(compressed);
+                    compressed.flip();
+                    position += compressed.remaining();
+                    BinaryFormat.writeFully(channel, compressed);
+                }
+            }
+        }
+        deflater.end();
+        offsets.putLong(position - start).flip();
+
+        var header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+              .putInt(VERSION)
+              .putInt(format.height)
+              .putInt(format.width)
+              .putInt(tileSize)
+              .clear();
+        channel.position(start);
+        BinaryFormat.writeFully(channel, header);
+        BinaryFormat.writeFully(channel, offsets);
+        channel.position(position);
+    }
+
+    public static Model read(SeekableByteChannel channel) throws IOException    //Reads the whole maze.
+    {
+        var start = channel.position();
+        var format = readHeader(channel);
+        var grid = new PackedGrid(format.height, format.width);
+        format.readTiles(channel, start, 0, 0, format.height, format.width, grid, 0, 0);
+        return new Model(format.height, format.width, grid);
+    }
+
+    /**
+     * Reads a rectangle of a maze, clipped to the maze. Only the header, the
+     * entries of the offset table of the tiles that overlap the rectangle
+     * and these tiles are read.
+     */
+    public static Viewport readRegion(SeekableByteChannel channel, int top, int left, int height, int width)
+        throws IOException
+    {
+        var start = channel.position();
+        var format = readHeader(channel);
+        var viewport = Viewport.clip(format.height, format.width, top, left, height, width);
+        format.readTiles(channel, start, top, left, viewport.getHeight(), viewport.getWidth(), viewport, top, left);
+        return viewport;
+    }
+
+    private static TiledFormat readHeader(SeekableByteChannel channel) throws IOException
+    {
+        var header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header);
+        header.flip();
+        if (header.getInt() != MAGIC)
+            throw invalid("It is not a tiled maze file");
+        var version = header.getInt();
+        if (version != VERSION)
+            throw invalid("Unsupported version " + version);
+        var height = header.getInt();
+        var width = header.getInt();
+        var tileSize = header.getInt();
+        if (height < 3 || width < 3)
+            throw invalid("Invalid size " + height + "x" + width);
+        if (tileSize < 8 || tileSize > 1 << 14)
+            throw invalid("Invalid tile size " + tileSize);
+        return new TiledFormat(height, width, tileSize);
+    }
+
+    /**
+     * Reads the tiles that overlap the rectangle of the given size at
+     * (top, left) and copies its squares into the target, where the square
+     * (originRow, originColumn) of the maze is at (0, 0).
+     */
+    private void readTiles(SeekableByteChannel channel, long start, int top, int left, int height, int width,
+                           Grid target, int originRow, int originColumn) throws IOException
+    {
+        var firstColumn = left / tileSize;
+        var lastColumn = (left + width - 1) / tileSize;
+        var offsets = ByteBuffer.allocate(8 * (lastColumn - firstColumn + 2)).order(ByteOrder.LITTLE_ENDIAN);
+        var raw = new byte[(tileSize * tileSize + 7) / 8];
+        var compressed = new byte[0];
+        var inflater = new Inflater();
+        try
+        {
+            for (int tileRow = top / tileSize; tileRow <= (top + height - 1) / tileSize; tileRow++)
+            {
+                offsets.clear();
+                channel.position(start + HEADER_SIZE + 8L * ((long) tileRow * tileColumns + firstColumn));
+                readFully(channel, offsets);
+                for (int tileColumn = firstColumn; tileColumn <= lastColumn; tileColumn++)
+                {
+                    var from = offsets.getLong(8 * (tileColumn - firstColumn));
+                    var to = offsets.getLong(8 * (tileColumn - firstColumn + 1));
+                    if (to < from || to - from > raw.length + (1 << 16))
+                        throw invalid("Invalid offset of the tile " + tileRow + ", " + tileColumn);
+                    if (compressed.length < to - from)
+                        compressed = new byte[(int) (to - from)];
+                    var buffer = ByteBuffer.wrap(compressed, 0, (int) (to - from));
+                    channel.position(start + from);
+                    readFully(channel, buffer);
+                    inflater.reset();
+                    inflater.setInput(compressed, 0, (int) (to - from));
+                    var length = inflater.inflate(raw);
+                    if (!inflater.finished() || length != (tileHeight(tileRow) * tileWidth(tileColumn) + 7) / 8)
+                        throw invalid("The tile " + tileRow + ", " + tileColumn + " is damaged");
+                    unpack(tileRow, tileColumn, raw, top, left, height, width, target, originRow, originColumn);
+                }
+            }
+        }
+        catch (DataFormatException e)
+        {
+            throw invalid("A tile is damaged");
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private int tileHeight(int tileRow)
+    {
+        return Math.min(tileSize, height - tileRow * tileSize);
+    }
+
+    private int tileWidth(int tileColumn)
+    {
+        return Math.min(tileSize, width - tileColumn * tileSize);
+    }
+
+    private int pack(Grid grid, int tileRow, int tileColumn, byte[] raw)    //Packs a tile into bits and returns the number of used bytes.
+    {
+        var rows = tileHeight(tileRow);
+        var columns = tileWidth(tileColumn);
+        var length = (rows * columns + 7) / 8;
+        Arrays.fill(raw, 0, length, (byte) 0);
+        var bit = 0;
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < columns; j++, bit++)
+            {
+                if (grid.isWall(tileRow * tileSize + i, tileColumn * tileSize + j))
+                    raw[bit >>> 3] |= 1 << (bit & 7);
+            }
+        }
+        return length;
+    }
+
+    private void unpack(int tileRow, int tileColumn, byte[] raw, int top, int left, int height, int width,
+                        Grid target, int originRow, int originColumn)   //Copies the part of a tile inside the rectangle.
+    {
+        var columns = tileWidth(tileColumn);
+        var firstRow = Math.max(top, tileRow * tileSize);
+        var lastRow = Math.min(top + height, tileRow * tileSize + tileHeight(tileRow));
+        var firstColumn = Math.max(left, tileColumn * tileSize);
+        var lastColumn = Math.min(left + width, tileColumn * tileSize + columns);
+        for (int row = firstRow; row < lastRow; row++)
+        {
+            var bit = (row - tileRow * tileSize) * columns - tileColumn * tileSize;
+            for (int column = firstColumn; column < lastColumn; column++)
+            {
+                if ((raw[(bit + column) >>> 3] & 1 << ((bit + column) & 7)) != 0)
+                    target.setType(row - originRow, column - originColumn, Cell.Type.WALL);
+            }
+        }
+    }
+
+    private static IllegalArgumentException invalid(String reason)
+    {
+        return new IllegalArgumentException("Cannot load the maze. " + reason);
+    }
+
+    private static void readFully(SeekableByteChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+                throw invalid("The file is truncated");
+        }
+    }
+}
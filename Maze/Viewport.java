@@ -0,0 +1,99 @@
+package Maze;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+public class Viewport implements Grid   //A rectangle of a maze loaded on its own. Coordinates are relative to the top left square
+{                                       //of the rectangle, which is at (getTop(), getLeft()) in the maze.
+
+    private final int top;
+    private final int left;
+    private final PackedGrid squares;
+
+    Viewport(int top, int left, int height, int width)
+    {
+        this.top = top;
+        this.left = left;
+        squares = new PackedGrid(height, width);
+    }
+
+    /**
+     * Copies a rectangle of a grid, clipped to the grid. Only the rows and
+     * the columns of the rectangle are touched, so a {@link MappedGrid}
+     * pages in only the part of its file that holds them.
+     */
+    public static Viewport of(Grid grid, int top, int left, int height, int width)
+    {
+        var viewport = clip(grid.getHeight(), grid.getWidth(), top, left, height, width);
+        for (int i = 0; i < viewport.getHeight(); i++)
+        {
+            for (int j = 0; j < viewport.getWidth(); j++)
+            {
+                if (grid.isWall(top + i, left + j))
+                    viewport.setType(i, j, Cell.Type.WALL);
+            }
+        }
+        return viewport;
+    }
+
+    static Viewport clip(int mazeHeight, int mazeWidth, int top, int left, int height, int width)
+    {                                   //Creates an empty viewport of the part of a rectangle that is inside the maze.
+        if (top < 0 || left < 0 || top >= mazeHeight || left >= mazeWidth || height < 1 || width < 1)
+        {
+            throw new IllegalArgumentException(
+                "The region starting at " + top + ", " + left + " is outside the maze " + mazeHeight + "x" + mazeWidth);
+        }
+        return new Viewport(top, left, Math.min(height, mazeHeight - top), Math.min(width, mazeWidth - left));
+    }
+
+    public int getTop()
+    {
+        return top;
+    }
+
+    public int getLeft()
+    {
+        return left;
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return squares.getHeight();
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return squares.getWidth();
+    }
+
+    @Override
+    public Cell.Type getType(int row, int column)
+    {
+        return squares.getType(row, column);
+    }
+
+    @Override
+    public void setType(int row, int column, Cell.Type type)
+    {
+        squares.setType(row, column, type);
+    }
+
+    @Override
+    public boolean isWall(int row, int column)
+    {
+        return squares.isWall(row, column);
+    }
+
+    public void render(Writer writer) throws IOException
+    {
+        new Renderer(this).render(writer);
+    }
+
+    public void render(OutputStream out) throws IOException
+    {
+        new Renderer(this).render(out);
+    }
+}
@@ -0,0 +1,162 @@
+package Maze;
+
+import Generation.ChunkedPassageTree;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A grid that is never stored. The maze is defined by its size and a seed,
+ * and the passages of a chunk are generated by a
+ * {@link ChunkedPassageTree} when a square of the chunk is first read.
+ * <p>
+ * Generated chunks are kept in an LRU cache of a bounded number of chunks.
+ * The cache holds them through soft references, so the collector may also
+ * drop them when the heap runs low; a dropped chunk is generated again
+ * with the same passages. The layout of the walls around the passages is
+ * the same as in a maze generated by {@link Model}.
+ */
+public class VirtualGrid implements Grid
+{
+    public static final int DEFAULT_CACHED_CHUNKS = 4096;
+
+    private final int height;
+    private final int width;
+    private final int cellRows;                 //The height of the maze in an imaginary edge form.
+    private final int cellColumns;              //The width of the maze in an imaginary edge form.
+    private final int exitColumn;
+    private final ChunkedPassageTree generator;
+    private final int chunkSize;                //The side of a chunk in cells.
+    private final Map<Integer, SoftReference<Chunk>> cache;
+    private volatile Chunk last;                //The chunk of the previous lookup. Neighbouring squares mostly share a chunk.
+
+    public VirtualGrid(int height, int width, long seed, int chunkSize, int cachedChunks)
+    {
+        if (height < 3 || width < 3)
+        {
+            throw new IllegalArgumentException(
+                "Both the height and the width " +
+                    "of the maze must be at least 3");
+        }
+        this.height = height;
+        this.width = width;
+        cellRows = (height - 1) / 2;
+        cellColumns = (width - 1) / 2;
+        exitColumn = width - 3 + width % 2;
+        generator = new ChunkedPassageTree(height, width, seed, chunkSize);
+        this.chunkSize = chunkSize;
+        cache = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, SoftReference<Chunk>> eldest)
+            {
+                return size() > cachedChunks;
+            }
+        };
+    }
+
+    public VirtualGrid(int height, int width, long seed)
+    {
+        this(height, width, seed, ChunkedPassageTree.DEFAULT_CHUNK_SIZE, DEFAULT_CACHED_CHUNKS);
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    @Override
+    public Cell.Type getType(int row, int column)
+    {
+        return isWall(row, column) ? Cell.Type.WALL : Cell.Type.PASSAGE;
+    }
+
+    @Override
+    public void setType(int row, int column, Cell.Type type)
+    {
+        throw new UnsupportedOperationException("A virtual maze cannot be changed");
+    }
+
+    /**
+     * Squares with both coordinates odd are cells and always passages, the
+     * squares between two cells are passages if the generator carved them
+     * and all other squares are walls, except the entrance and the exit.
+     */
+    @Override
+    public boolean isWall(int row, int column)
+    {
+        if (row == 0)
+            return column != 1;
+        if (row >= height - 2 && column == exitColumn && (row == height - 1 || height % 2 == 0))
+            return false;
+        if (row > 2 * cellRows - 1 || column > 2 * cellColumns - 1 || column == 0)
+            return true;
+        var oddRow = (row & 1) != 0;
+        var oddColumn = (column & 1) != 0;
+        if (oddRow == oddColumn)
+            return !oddRow;
+        return !chunk(row / 2, column / 2).isOpen(row / 2, column / 2, oddRow ? 0 : 1);
+    }
+
+    private Chunk chunk(int cellRow, int cellColumn)
+    {
+        var chunkRow = cellRow / chunkSize;
+        var chunkColumn = cellColumn / chunkSize;
+        var chunk = last;
+        if (chunk != null && chunk.chunkRow == chunkRow && chunk.chunkColumn == chunkColumn)
+            return chunk;
+        var key = chunkRow * generator.getChunkColumns() + chunkColumn;
+        synchronized (cache)
+        {
+            var reference = cache.get(key);
+            chunk = reference == null ? null : reference.get();
+        }
+        if (chunk == null)                      //Generated outside the lock. Two threads may generate the same chunk, both get equal passages.
+        {
+            chunk = new Chunk(chunkRow, chunkColumn);
+            synchronized (cache)
+            {
+                cache.put(key, new SoftReference<>(chunk));
+            }
+        }
+        last = chunk;
+        return chunk;
+    }
+
+    private class Chunk                         //The carved squares of one chunk: two bits per cell, for the squares on its left and above.
+    {
+        final int chunkRow;
+        final int chunkColumn;
+        final long[] open;
+
+        Chunk(int chunkRow, int chunkColumn)
+        {
+            this.chunkRow = chunkRow;
+            this.chunkColumn = chunkColumn;
+            open = new long[(2 * chunkSize * chunkSize + 63) >>> 6];
+            generator.generateChunk(chunkRow, chunkColumn, (row, column) -> {
+                var bit = bit(row / 2, column / 2, (row & 1) != 0 ? 0 : 1);
+                open[bit >>> 6] |= 1L << bit;
+            });
+        }
+
+        boolean isOpen(int cellRow, int cellColumn, int direction)
+        {
+            var bit = bit(cellRow, cellColumn, direction);
+            return (open[bit >>> 6] & 1L << bit) != 0;
+        }
+
+        private int bit(int cellRow, int cellColumn, int direction)
+        {
+            return ((cellRow - chunkRow * chunkSize) * chunkSize + cellColumn - chunkColumn * chunkSize) << 1 | direction;
+        }
+    }
+}
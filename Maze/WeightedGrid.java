@@ -0,0 +1,61 @@
+package Maze;
+
+public class WeightedGrid implements Grid   //A grid of squares together with the costs of entering them. The squares are read from another grid.
+{
+    private final Grid squares;
+    private final Terrain terrain;
+
+    public WeightedGrid(Grid squares, Terrain terrain)
+    {
+        if (squares.getHeight() != terrain.getHeight() || squares.getWidth() != terrain.getWidth())
+            throw new IllegalArgumentException("The terrain does not match the size of the maze");
+        this.squares = squares;
+        this.terrain = terrain;
+    }
+
+    public Terrain getTerrain()
+    {
+        return terrain;
+    }
+
+    Grid getSquares()
+    {
+        return squares;
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return squares.getHeight();
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return squares.getWidth();
+    }
+
+    @Override
+    public Cell.Type getType(int row, int column)
+    {
+        return squares.getType(row, column);
+    }
+
+    @Override
+    public void setType(int row, int column, Cell.Type type)
+    {
+        squares.setType(row, column, type);
+    }
+
+    @Override
+    public boolean isWall(int row, int column)
+    {
+        return squares.isWall(row, column);
+    }
+
+    @Override
+    public int getCost(int row, int column)
+    {
+        return terrain.getCost(row, column);
+    }
+}
@@ -0,0 +1,38 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("maze.Generation")
+@Label("Maze Generation")
+@Category("Maze")
+@Description("Generation of the passages of one maze")
+class GenerationEvent extends jdk.jfr.Event
+{
+    @Label("Generator")
+    String generator;
+
+    @Label("Height")
+    int height;
+
+    @Label("Width")
+    int width;
+
+    @Label("Edge Creation")
+    @Timespan
+    long edgesNanos;
+
+    @Label("Shuffle")
+    @Timespan
+    long orderNanos;
+
+    @Label("Spanning Tree And Carving")
+    @Timespan
+    long treeNanos;
+
+    @Label("Unions")
+    long unions;
+}
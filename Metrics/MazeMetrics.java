@@ -0,0 +1,295 @@
+package Metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of generation, solving and serialization, exposed as the JMX
+ * MBean {@value #OBJECT_NAME} and as the JFR events maze.Generation,
+ * maze.Solve and maze.Serialization.
+ * <p>
+ * Instrumented code keeps its counts in plain local fields and reports them
+ * once per operation. The counters are only updated while metrics are
+ * enabled (the {@code maze.metrics} system property or the MBean) and the
+ * events are only built while a recording enables them, so disabled
+ * metrics cost one check per maze, solve or file.
+ */
+public final class MazeMetrics implements MazeMetricsMBean
+{
+    public static final String OBJECT_NAME = "Maze:type=Metrics";
+
+    private static final MazeMetrics INSTANCE = new MazeMetrics();
+    private static volatile boolean enabled = Boolean.getBoolean("maze.metrics");
+
+    private static final EventType GENERATION_EVENT = EventType.getEventType(GenerationEvent.class);
+    private static final EventType SOLVE_EVENT = EventType.getEventType(SolveEvent.class);
+    private static final EventType SERIALIZATION_EVENT = EventType.getEventType(SerializationEvent.class);
+
+    private static final LongAdder generations = new LongAdder();
+    private static final LongAdder edgesNanos = new LongAdder();
+    private static final LongAdder orderNanos = new LongAdder();
+    private static final LongAdder treeNanos = new LongAdder();
+    private static final LongAdder unions = new LongAdder();
+
+    private static final LongAdder solves = new LongAdder();
+    private static final LongAdder solveNanos = new LongAdder();
+    private static final LongAdder expanded = new LongAdder();
+    private static final LongAdder pushes = new LongAdder();
+    private static final LongAdder decreaseKeys = new LongAdder();
+    private static final LongAccumulator peakOpen = new LongAccumulator(Math::max, 0);
+    private static final LongAdder pathSquares = new LongAdder();
+
+    private static final LongAdder bytesWritten = new LongAdder();
+    private static final LongAdder writeNanos = new LongAdder();
+    private static final LongAdder bytesRead = new LongAdder();
+    private static final LongAdder readNanos = new LongAdder();
+
+    private MazeMetrics()
+    {
+    }
+
+    public static boolean enabled()
+    {
+        return enabled;
+    }
+
+    public static boolean generationActive()    //Checks if a generation should be timed: metrics or its event are enabled.
+    {
+        return enabled || GENERATION_EVENT.isEnabled();
+    }
+
+    public static boolean solveActive()
+    {
+        return enabled || SOLVE_EVENT.isEnabled();
+    }
+
+    public static boolean serializationActive()
+    {
+        return enabled || SERIALIZATION_EVENT.isEnabled();
+    }
+
+    public static synchronized void register()  //Registers the MBean in the platform MBean server unless it is already there.
+    {
+        try
+        {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name))
+                server.registerMBean(INSTANCE, name);
+        }
+        catch (JMException e)
+        {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Records the phases of one generation: creating the edges, ordering
+     * them (a shuffle or a sort) and building the spanning tree, which
+     * includes carving the passages into the maze.
+     */
+    public static void recordGeneration(String generator, int height, int width,
+                                        long edges, long order, long tree, long unionCount)
+    {
+        if (enabled)
+        {
+            generations.increment();
+            edgesNanos.add(edges);
+            orderNanos.add(order);
+            treeNanos.add(tree);
+            unions.add(unionCount);
+        }
+        var event = new GenerationEvent();
+        if (event.shouldCommit())
+        {
+            event.generator = generator;
+            event.height = height;
+            event.width = width;
+            event.edgesNanos = edges;
+            event.orderNanos = order;
+            event.treeNanos = tree;
+            event.unions = unionCount;
+            event.commit();
+        }
+    }
+
+    public static void recordSolve(String strategy, long nanos, long expandedCount, long pushCount,
+                                   long decreaseKeyCount, long peakOpenSize, long pathLength)
+    {
+        if (enabled)
+        {
+            solves.increment();
+            solveNanos.add(nanos);
+            expanded.add(expandedCount);
+            pushes.add(pushCount);
+            decreaseKeys.add(decreaseKeyCount);
+            peakOpen.accumulate(peakOpenSize);
+            pathSquares.add(pathLength);
+        }
+        var event = new SolveEvent();
+        if (event.shouldCommit())
+        {
+            event.strategy = strategy;
+            event.searchNanos = nanos;
+            event.expanded = expandedCount;
+            event.pushes = pushCount;
+            event.decreaseKeys = decreaseKeyCount;
+            event.peakOpen = peakOpenSize;
+            event.pathLength = pathLength;
+            event.commit();
+        }
+    }
+
+    public static void recordSerialization(String format, boolean write, long bytes, long nanos)
+    {
+        if (enabled)
+        {
+            (write ? bytesWritten : bytesRead).add(bytes);
+            (write ? writeNanos : readNanos).add(nanos);
+        }
+        var event = new SerializationEvent();
+        if (event.shouldCommit())
+        {
+            event.format = format;
+            event.write = write;
+            event.bytes = bytes;
+            event.transferNanos = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean value)
+    {
+        enabled = value;
+    }
+
+    @Override
+    public void reset()
+    {
+        for (var adder : new LongAdder[]{generations, edgesNanos, orderNanos, treeNanos, unions, solves, solveNanos,
+                                         expanded, pushes, decreaseKeys, pathSquares, bytesWritten, writeNanos,
+                                         bytesRead, readNanos})
+            adder.reset();
+        peakOpen.reset();
+    }
+
+    @Override
+    public long getGenerations()
+    {
+        return generations.sum();
+    }
+
+    @Override
+    public double getEdgeCreationMillis()
+    {
+        return edgesNanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getShuffleMillis()
+    {
+        return orderNanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getSpanningTreeMillis()
+    {
+        return treeNanos.sum() / 1e6;
+    }
+
+    @Override
+    public long getUnions()
+    {
+        return unions.sum();
+    }
+
+    @Override
+    public long getSolves()
+    {
+        return solves.sum();
+    }
+
+    @Override
+    public double getSolveMillis()
+    {
+        return solveNanos.sum() / 1e6;
+    }
+
+    @Override
+    public long getNodesExpanded()
+    {
+        return expanded.sum();
+    }
+
+    @Override
+    public long getHeapPushes()
+    {
+        return pushes.sum();
+    }
+
+    @Override
+    public long getDecreaseKeys()
+    {
+        return decreaseKeys.sum();
+    }
+
+    @Override
+    public long getPeakOpenSetSize()
+    {
+        return peakOpen.get();
+    }
+
+    @Override
+    public long getPathSquares()
+    {
+        return pathSquares.sum();
+    }
+
+    @Override
+    public long getBytesWritten()
+    {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getBytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public double getSerializationMillis()
+    {
+        return (writeNanos.sum() + readNanos.sum()) / 1e6;
+    }
+
+    @Override
+    public double getWriteMegabytesPerSecond()
+    {
+        return throughput(bytesWritten, writeNanos);
+    }
+
+    @Override
+    public double getReadMegabytesPerSecond()
+    {
+        return throughput(bytesRead, readNanos);
+    }
+
+    private static double throughput(LongAdder bytes, LongAdder nanos)
+    {
+        var time = nanos.sum();
+        return time == 0 ? 0 : bytes.sum() / 1e6 / (time / 1e9);
+    }
+}
@@ -0,0 +1,44 @@
+package Metrics;
+
+public interface MazeMetricsMBean       //The JMX view of MazeMetrics. Times are totals in milliseconds since the last reset.
+{
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    void reset();
+
+    long getGenerations();
+
+    double getEdgeCreationMillis();
+
+    double getShuffleMillis();
+
+    double getSpanningTreeMillis();
+
+    long getUnions();
+
+    long getSolves();
+
+    double getSolveMillis();
+
+    long getNodesExpanded();
+
+    long getHeapPushes();
+
+    long getDecreaseKeys();
+
+    long getPeakOpenSetSize();
+
+    long getPathSquares();
+
+    long getBytesWritten();
+
+    long getBytesRead();
+
+    double getSerializationMillis();
+
+    double getWriteMegabytesPerSecond();
+
+    double getReadMegabytesPerSecond();
+}
@@ -0,0 +1,29 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("maze.Serialization")
+@Label("Maze Serialization")
+@Category("Maze")
+@Description("Reading or writing one maze")
+class SerializationEvent extends jdk.jfr.Event
+{
+    @Label("Format")
+    String format;
+
+    @Label("Write")
+    boolean write;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Transfer Time")
+    @Timespan
+    long transferNanos;
+}
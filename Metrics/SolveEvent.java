@@ -0,0 +1,36 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("maze.Solve")
+@Label("Maze Solve")
+@Category("Maze")
+@Description("One path search")
+class SolveEvent extends jdk.jfr.Event
+{
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Search Time")
+    @Timespan
+    long searchNanos;
+
+    @Label("Nodes Expanded")
+    long expanded;
+
+    @Label("Pushes")
+    long pushes;
+
+    @Label("Decrease Keys")
+    long decreaseKeys;
+
+    @Label("Peak Open Set Size")
+    long peakOpen;
+
+    @Label("Path Length")
+    long pathLength;
+}
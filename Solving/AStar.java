@@ -0,0 +1,111 @@
+package Solving;
+
+import Maze.Grid;
+import Maze.WeightedGrid;
+
+import java.util.Arrays;
+
+public class AStar extends GridSearch  //An A* search over a grid that keeps its state in flat arrays indexed by row * width + column.
+{                                       //Nothing is allocated per square: g costs and parents are int arrays, the closed set is a bitset
+                                        //and the open set is an indexed binary heap with a real decrease-key. An instance can be reused for
+                                        //many searches over the same grid, but only by one thread at a time.
+    private static final int EDGE_COST = 1;
+
+    private final boolean weighted;     //Set if entering a square costs its terrain cost instead of EDGE_COST.
+    private final int[] g;              //The cost of the best known path from the start.
+    private final int[] parent;         //The previous square on the best known path.
+    private final long[] closed;        //Already processed squares.
+    private final IndexedHeap open;     //Squares to process ordered by the final cost.
+    private int[] processed = new int[64];  //The squares in the closed set, to clear it before the next search.
+    private int processedCount;
+    private final SearchCounters counters = new SearchCounters();
+
+    public AStar(Grid grid)
+    {
+        super(grid);
+        weighted = grid instanceof WeightedGrid;
+        g = new int[size];
+        parent = new int[size];
+        closed = newBitSet(size);
+        open = new IndexedHeap(size);
+    }
+
+    @Override
+    public int[] search(int start, int end)     //Returns the indices of the path start -> ... -> end or an empty array if there is none.
+    {
+        reset();
+        var endRow = end / width;
+        var endColumn = end % width;
+        g[start] = 0;
+        parent[start] = start;
+        open.add(start, 0);
+        counters.pushes++;
+        counters.open(1);
+        while (!open.isEmpty())
+        {
+            var cur = open.poll();
+            counters.expanded++;
+            if (cur == end)
+                return pathTo(parent, start, end);
+            close(cur);
+            var row = cur / width;
+            var column = cur % width;
+            if (row > 0)
+                relax(cur, cur - width, row - 1, column, endRow, endColumn);
+            if (column > 0)
+                relax(cur, cur - 1, row, column - 1, endRow, endColumn);
+            if (column < width - 1)
+                relax(cur, cur + 1, row, column + 1, endRow, endColumn);
+            if (row < height - 1)
+                relax(cur, cur + width, row + 1, column, endRow, endColumn);
+        }
+        return new int[0];
+    }
+
+    @Override
+    public SearchCounters counters()
+    {
+        return counters;
+    }
+
+    private void reset()                        //Clears the state of the previous search in time proportional to its size.
+    {
+        for (int i = 0; i < processedCount; i++)
+            closed[processed[i] >>> 6] = 0;
+        processedCount = 0;
+        open.clear();
+        counters.reset();
+    }
+
+    private void close(int index)
+    {
+        closed[index >>> 6] |= 1L << index;
+        if (processedCount == processed.length)
+            processed = Arrays.copyOf(processed, processedCount * 2);
+        processed[processedCount++] = index;
+    }
+
+    private void relax(int cur, int next, int row, int column, int endRow, int endColumn)
+    {
+        if ((closed[next >>> 6] & (1L << next)) != 0 || grid.isWall(row, column))
+            return;
+        var cost = g[cur] + (weighted ? grid.getCost(row, column) : EDGE_COST);
+        var inOpen = open.contains(next);
+        if (inOpen && cost >= g[next])
+            return;
+        g[next] = cost;
+        parent[next] = cur;
+        var f = cost + Math.abs(endRow - row) + Math.abs(endColumn - column);
+        if (inOpen)
+        {
+            open.decreaseKey(next, f);
+            counters.decreaseKeys++;
+        }
+        else
+        {
+            open.add(next, f);
+            counters.pushes++;
+            counters.open(open.size());
+        }
+    }
+}
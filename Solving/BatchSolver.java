@@ -0,0 +1,87 @@
+package Solving;
+
+import Maze.Grid;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Answers batches of path queries in parallel against one maze. The grid
+ * is only read, so it can be shared by all workers and by other readers.
+ * Every worker thread keeps its own {@link PathFinder} of the chosen
+ * strategy with its scratch arrays and reuses it for all the queries it
+ * handles.
+ */
+public class BatchSolver implements AutoCloseable
+{
+    private final Grid grid;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<PathFinder> searches;
+
+    public BatchSolver(Grid grid, int threads, Strategy strategy)
+    {
+        this.grid = grid;
+        pool = new ForkJoinPool(threads);
+        searches = ThreadLocal.withInitial(() -> strategy.finder(grid));
+    }
+
+    public BatchSolver(Grid grid, int threads)
+    {
+        this(grid, threads, Strategy.A_STAR);
+    }
+
+    /**
+     * Solves every query of a batch.
+     *
+     * @param queries the start and end squares to find paths between
+     * @return the paths in the order of the queries as compact move streams,
+     *         empty if there is no path
+     * @throws IllegalArgumentException if a square of a query is outside of
+     *                                  the maze, before any query is solved
+     */
+    public CompactPath[] solve(List<Query> queries)
+    {
+        var height = grid.getHeight();
+        var width = grid.getWidth();
+        for (int i = 0; i < queries.size(); i++)
+        {
+            var query = queries.get(i);
+            if (!inside(query.getStartRow(), query.getStartColumn(), height, width)
+                || !inside(query.getEndRow(), query.getEndColumn(), height, width))
+                throw new IllegalArgumentException("The query " + i + " has a square outside of the maze " + height + "x" + width);
+        }
+        var paths = new CompactPath[queries.size()];
+        try
+        {
+            pool.submit(() -> IntStream.range(0, paths.length).parallel().forEach(i -> {
+                var query = queries.get(i);
+                paths[i] = CompactPath.of(searches.get().search(
+                    query.getStartRow() * width + query.getStartColumn(),
+                    query.getEndRow() * width + query.getEndColumn()), width);
+            })).get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The batch was interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("The batch failed", e.getCause());
+        }
+        return paths;
+    }
+
+    private static boolean inside(int row, int column, int height, int width)
+    {
+        return row >= 0 && row < height && column >= 0 && column < width;
+    }
+
+    @Override
+    public void close()
+    {
+        pool.shutdown();
+    }
+}
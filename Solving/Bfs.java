@@ -0,0 +1,64 @@
+package Solving;
+
+import Maze.Grid;
+
+public class Bfs extends GridSearch     //A plain breadth-first search with an int ring-buffer queue. In a grid where every step costs the same
+{                                       //it finds a shortest path without any heap operations.
+
+    private final int[] parent;
+    private final long[] visited;
+    private final IntRingQueue queue;
+    private final SearchCounters counters = new SearchCounters();
+
+    public Bfs(Grid grid)
+    {
+        super(grid);
+        parent = new int[size];
+        visited = newBitSet(size);
+        queue = new IntRingQueue(Math.min(size, 1 << 16));
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        return search(start, end, null);
+    }
+
+    int[] search(int start, int end, long[] blocked)    //Searches only through the squares that are not set in blocked, if given.
+    {
+        clear(visited);
+        queue.clear();
+        counters.reset();
+        set(visited, start);
+        parent[start] = start;
+        queue.add(start);
+        counters.pushes++;
+        counters.open(1);
+        while (!queue.isEmpty())
+        {
+            var cur = queue.poll();
+            counters.expanded++;
+            if (cur == end)
+                return pathTo(parent, start, end);
+            for (int direction = 0; direction < 4; direction++)
+            {
+                var next = neighbor(cur, direction);
+                if (next != NONE && !get(visited, next) && (blocked == null || !get(blocked, next)))
+                {
+                    set(visited, next);
+                    parent[next] = cur;
+                    queue.add(next);
+                    counters.pushes++;
+                }
+            }
+            counters.open(queue.size());
+        }
+        return new int[0];
+    }
+
+    @Override
+    public SearchCounters counters()
+    {
+        return counters;
+    }
+}
@@ -0,0 +1,116 @@
+package Solving;
+
+import Maze.Grid;
+
+public class BidirectionalBfs extends GridSearch    //Breadth-first searches from both ends. Every step expands one whole level of the
+{                                                   //smaller frontier. The searches meet after visiting about half of the squares
+                                                    //a one-sided search would need in an open grid.
+    private final int[] parentFromStart;
+    private final int[] parentFromEnd;
+    private final int[] distanceFromStart;
+    private final int[] distanceFromEnd;
+    private final long[] visitedFromStart;
+    private final long[] visitedFromEnd;
+    private final IntRingQueue fromStart;
+    private final IntRingQueue fromEnd;
+    private final SearchCounters counters = new SearchCounters();
+
+    public BidirectionalBfs(Grid grid)
+    {
+        super(grid);
+        parentFromStart = new int[size];
+        parentFromEnd = new int[size];
+        distanceFromStart = new int[size];
+        distanceFromEnd = new int[size];
+        visitedFromStart = newBitSet(size);
+        visitedFromEnd = newBitSet(size);
+        fromStart = new IntRingQueue(Math.min(size, 1 << 16));
+        fromEnd = new IntRingQueue(Math.min(size, 1 << 16));
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        clear(visitedFromStart);
+        clear(visitedFromEnd);
+        fromStart.clear();
+        fromEnd.clear();
+        counters.reset();
+        visit(start, start, 0, parentFromStart, distanceFromStart, visitedFromStart, fromStart);
+        visit(end, end, 0, parentFromEnd, distanceFromEnd, visitedFromEnd, fromEnd);
+        if (start == end)
+            return new int[]{start};
+        while (!fromStart.isEmpty() && !fromEnd.isEmpty())
+        {
+            int meeting;
+            if (fromStart.size() <= fromEnd.size())
+                meeting = expandLevel(fromStart, parentFromStart, distanceFromStart, visitedFromStart, distanceFromEnd, visitedFromEnd);
+            else
+                meeting = expandLevel(fromEnd, parentFromEnd, distanceFromEnd, visitedFromEnd, distanceFromStart, visitedFromStart);
+            counters.open(fromStart.size() + fromEnd.size());
+            if (meeting != NONE)
+                return join(start, end, meeting);
+        }
+        return new int[0];
+    }
+
+    @Override
+    public SearchCounters counters()
+    {
+        return counters;
+    }
+
+    /**
+     * Expands every square of the current level of one side. Returns the
+     * square where the sides meet on the shortest total distance, or NONE
+     * if they do not meet in this level. The whole level is expanded before
+     * choosing, so the result is a shortest path even in mazes with cycles.
+     */
+    private int expandLevel(IntRingQueue queue, int[] parent, int[] distance, long[] visited,
+                            int[] otherDistance, long[] otherVisited)
+    {
+        var best = NONE;
+        var bestLength = Integer.MAX_VALUE;
+        for (int count = queue.size(); count > 0; count--)
+        {
+            var cur = queue.poll();
+            counters.expanded++;
+            for (int direction = 0; direction < 4; direction++)
+            {
+                var next = neighbor(cur, direction);
+                if (next == NONE || get(visited, next))
+                    continue;
+                visit(next, cur, distance[cur] + 1, parent, distance, visited, queue);
+                counters.pushes++;
+                if (get(otherVisited, next) && distance[next] + otherDistance[next] < bestLength)
+                {
+                    best = next;
+                    bestLength = distance[next] + otherDistance[next];
+                }
+            }
+        }
+        return best;
+    }
+
+    private static void visit(int index, int from, int length, int[] parent, int[] distance, long[] visited, IntRingQueue queue)
+    {
+        set(visited, index);
+        parent[index] = from;
+        distance[index] = length;
+        queue.add(index);
+    }
+
+    private int[] join(int start, int end, int meeting)    //Joins the path from the start to the meeting square with the path from there to the end.
+    {
+        var first = pathTo(parentFromStart, start, meeting);
+        var path = new int[first.length + distanceFromEnd[meeting]];
+        System.arraycopy(first, 0, path, 0, first.length);
+        var cur = meeting;
+        for (int i = first.length; i < path.length; i++)
+        {
+            cur = parentFromEnd[cur];
+            path[i] = cur;
+        }
+        return path;
+    }
+}
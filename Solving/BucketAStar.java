@@ -0,0 +1,110 @@
+package Solving;
+
+import Maze.Grid;
+
+/**
+ * An A* search for grids where every step costs 1, with a bucket queue
+ * instead of a binary heap. With the Manhattan distance as the heuristic a
+ * step changes the final cost f = g + h by 0 or 2, so the open squares only
+ * ever have the current f or f + 2. Stacks of squares hold them; adding and
+ * taking a square is O(1) and no comparisons are made.
+ * <p>
+ * There are four stacks indexed by {@code f & 3}, although only two of
+ * them are used: every f has the parity of the f of the start. The search
+ * counts f up one at a time, and {@code f & 1} would put f and f + 2 into
+ * the same stack, so a square of f + 2 could be expanded before the rest
+ * of f. With {@code f & 3} they stay apart, and the two stacks of the other
+ * parity are always empty and skipped.
+ * <p>
+ * The newest square of the current bucket is expanded first, which breaks
+ * ties towards the deepest squares like A* with a good tie-breaking rule.
+ * A square whose cost improves is pushed again and the stale entry is
+ * skipped when it comes out, so there are no decrease-keys. Paths are
+ * shortest, also in mazes with cycles.
+ */
+public class BucketAStar extends GridSearch
+{
+    private final int[] g;              //The cost of the best known path from the start.
+    private final int[] parent;
+    private final long[] closed;
+    private final long[] seen;          //Squares with a known g. Their g is valid only while the bit is set.
+    private final IntStack[] buckets = {new IntStack(), new IntStack(), new IntStack(), new IntStack()};  //Indexed by f & 3, see above.
+    private final SearchCounters counters = new SearchCounters();
+
+    public BucketAStar(Grid grid)
+    {
+        super(grid);
+        g = new int[size];
+        parent = new int[size];
+        closed = newBitSet(size);
+        seen = newBitSet(size);
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        clear(closed);
+        clear(seen);
+        for (var bucket : buckets)
+            bucket.clear();
+        counters.reset();
+        var endRow = end / width;
+        var endColumn = end % width;
+
+        var f = heuristic(start, endRow, endColumn);
+        g[start] = 0;
+        parent[start] = start;
+        set(seen, start);
+        buckets[f & 3].push(start);
+        counters.pushes++;
+        var open = 1;
+        counters.open(open);
+        while (true)
+        {
+            var bucket = buckets[f & 3];
+            if (bucket.isEmpty())
+            {
+                if (open == 0)
+                    return new int[0];
+                f++;
+                continue;
+            }
+            var cur = bucket.pop();
+            open--;
+            if (get(closed, cur) || g[cur] + heuristic(cur, endRow, endColumn) != f)
+                continue;                               //A stale entry of a square that was reached cheaper later.
+            if (cur == end)
+                return pathTo(parent, start, end);
+            set(closed, cur);
+            counters.expanded++;
+            for (int direction = 0; direction < 4; direction++)
+            {
+                var next = neighbor(cur, direction);
+                if (next == NONE || get(closed, next))
+                    continue;
+                var cost = g[cur] + 1;
+                if (get(seen, next) && cost >= g[next])
+                    continue;
+                set(seen, next);
+                g[next] = cost;
+                parent[next] = cur;
+                buckets[(cost + heuristic(next, endRow, endColumn)) & 3].push(next);
+                counters.pushes++;
+                open++;
+            }
+            counters.open(open);
+        }
+    }
+
+    @Override
+    public SearchCounters counters()
+    {
+        return counters;
+    }
+
+    private int heuristic(int index, int endRow, int endColumn)
+    {
+        var row = index / width;
+        return Math.abs(endRow - row) + Math.abs(endColumn - (index - row * width));
+    }
+}
@@ -0,0 +1,235 @@
+package Solving;
+
+import Maze.Cell;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static Maze.Cell.Type.ESCAPE;
+
+/**
+ * A path stored as its start square and a stream of moves, 2 bits per step
+ * (0 - up, 1 - right, 2 - down, 3 - left). A path of a million steps takes
+ * 250 KB instead of millions of Cell and list node objects. Coordinates are
+ * produced on demand by {@link #forEachSquare(SquareConsumer)} without any
+ * allocation or by the Cell {@link #iterator()}.
+ */
+public final class CompactPath implements Iterable<Cell>
+{
+    private static final char[] LETTERS = {'U', 'R', 'D', 'L'};
+    private static final int[] ROW_DELTAS = {-1, 0, 1, 0};
+    private static final int[] COLUMN_DELTAS = {0, 1, 0, -1};
+
+    public static final CompactPath EMPTY = new CompactPath(-1, -1, -1, new long[0]);
+
+    @FunctionalInterface
+    public interface SquareConsumer
+    {
+        void accept(int row, int column);
+    }
+
+    private final int startRow;
+    private final int startColumn;
+    private final int steps;            //The number of moves, -1 for an empty path.
+    private final long[] moves;
+
+    CompactPath(int startRow, int startColumn, int steps, long[] moves)
+    {
+        this.startRow = startRow;
+        this.startColumn = startColumn;
+        this.steps = steps;
+        this.moves = moves;
+    }
+
+    /**
+     * Encodes a path of square indices (row * width + column).
+     *
+     * @throws IllegalArgumentException if two consecutive squares are not neighbors
+     */
+    public static CompactPath of(int[] path, int width)
+    {
+        if (path.length == 0)
+            return EMPTY;
+        var moves = newMoves(path.length - 1);
+        for (int i = 1; i < path.length; i++)
+            setMove(moves, i - 1, direction(path[i - 1], path[i], width));
+        return new CompactPath(path[0] / width, path[0] % width, path.length - 1, moves);
+    }
+
+    static long[] newMoves(int steps)
+    {
+        return new long[(int) ((2L * steps + 63) >>> 6)];
+    }
+
+    static void setMove(long[] moves, int step, int direction)
+    {
+        var bit = 2L * step;
+        moves[(int) (bit >>> 6)] |= (long) direction << bit;
+    }
+
+    static int direction(int from, int to, int width)
+    {
+        var difference = to - from;
+        if (difference == -width)
+            return 0;
+        if (difference == 1 && to % width != 0)
+            return 1;
+        if (difference == width)
+            return 2;
+        if (difference == -1 && from % width != 0)
+            return 3;
+        throw new IllegalArgumentException("The squares " + from + " and " + to + " are not neighbors");
+    }
+
+    public boolean isEmpty()
+    {
+        return steps < 0;
+    }
+
+    public int getSteps()               //The number of moves, 0 for an empty path.
+    {
+        return Math.max(steps, 0);
+    }
+
+    public int getLength()              //The number of squares on the path.
+    {
+        return steps + 1;
+    }
+
+    public int getStartRow()
+    {
+        return startRow;
+    }
+
+    public int getStartColumn()
+    {
+        return startColumn;
+    }
+
+    public int getMove(int step)        //The direction of a move: 0 - up, 1 - right, 2 - down, 3 - left.
+    {
+        var bit = 2L * step;
+        return (int) (moves[(int) (bit >>> 6)] >>> bit) & 3;
+    }
+
+    public void forEachSquare(SquareConsumer consumer)     //Passes the coordinates of every square from the start to the end.
+    {
+        if (isEmpty())
+            return;
+        var row = startRow;
+        var column = startColumn;
+        consumer.accept(row, column);
+        for (int i = 0; i < steps; i++)
+        {
+            var move = getMove(i);
+            row += ROW_DELTAS[move];
+            column += COLUMN_DELTAS[move];
+            consumer.accept(row, column);
+        }
+    }
+
+    public int[] toIndices(int width)
+    {
+        var path = new int[getLength()];
+        int[] position = {0};
+        forEachSquare((row, column) -> path[position[0]++] = row * width + column);
+        return path;
+    }
+
+    @Override
+    public Iterator<Cell> iterator()    //Creates an escape cell for every square, for callers that need objects.
+    {
+        return new Iterator<>()
+        {
+            private int step = -1;
+            private int row = startRow;
+            private int column = startColumn;
+
+            @Override
+            public boolean hasNext()
+            {
+                return step < steps;
+            }
+
+            @Override
+            public Cell next()
+            {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                if (step >= 0)
+                {
+                    var move = getMove(step);
+                    row += ROW_DELTAS[move];
+                    column += COLUMN_DELTAS[move];
+                }
+                step++;
+                return new Cell(row, column, ESCAPE);
+            }
+        };
+    }
+
+    public String toRunLength()         //Describes the moves as runs, for example "R×12, D×3".
+    {
+        var sb = new StringBuilder();
+        for (int i = 0; i < steps; )
+        {
+            var move = getMove(i);
+            var run = 1;
+            while (i + run < steps && getMove(i + run) == move)
+                run++;
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(LETTERS[move]).append('×').append(run);
+            i += run;
+        }
+        return sb.toString();
+    }
+
+    public void writeTo(DataOutput out) throws IOException      //Writes the start, the number of steps and the packed moves.
+    {
+        out.writeInt(startRow);
+        out.writeInt(startColumn);
+        out.writeInt(steps);
+        for (var word : moves)
+            out.writeLong(word);
+    }
+
+    /**
+     * Reads a path written by {@link #writeTo(DataOutput)} for a grid of the
+     * given size. A path never visits a square twice, so it has fewer steps
+     * than the grid has squares; the count is checked before the moves are
+     * allocated.
+     *
+     * @throws IllegalArgumentException if the start is outside of the grid
+     *                                  or the number of steps is invalid
+     */
+    public static CompactPath readFrom(DataInput in, int height, int width) throws IOException
+    {
+        var startRow = in.readInt();
+        var startColumn = in.readInt();
+        var steps = in.readInt();
+        if (steps == -1)
+            return EMPTY;
+        if (steps < 0 || steps >= (long) height * width)
+            throw new IllegalArgumentException("Cannot read the path. Invalid number of steps " + steps);
+        if (startRow < 0 || startRow >= height || startColumn < 0 || startColumn >= width)
+            throw new IllegalArgumentException("Cannot read the path. The start " + startRow + "," + startColumn
+                                               + " is outside of the maze");
+        var moves = newMoves(steps);
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = in.readLong();
+        return new CompactPath(startRow, startColumn, steps, moves);
+    }
+
+    @Override
+    public String toString()
+    {
+        return isEmpty() ? "CompactPath{}" : "CompactPath{" +
+            "start=" + startRow + "," + startColumn +
+            ", moves=" + toRunLength() +
+            '}';
+    }
+}
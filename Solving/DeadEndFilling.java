@@ -0,0 +1,60 @@
+package Solving;
+
+import Maze.Grid;
+
+public class DeadEndFilling extends GridSearch      //Fills dead ends until only the squares between the start and the end that are not in
+{                                                   //a dead-end branch are left. In a perfect maze they are exactly the escape path, with cycles
+                                                    //a breadth-first search over them picks a shortest one.
+    private final byte[] degree;        //The number of passages next to a square that are not filled.
+    private final long[] filled;
+    private final IntRingQueue deadEnds;
+    private final Bfs bfs;
+
+    public DeadEndFilling(Grid grid)
+    {
+        super(grid);
+        degree = new byte[size];
+        filled = newBitSet(size);
+        deadEnds = new IntRingQueue(1 << 16);
+        bfs = new Bfs(grid);
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        clear(filled);
+        deadEnds.clear();
+        for (int i = 0; i < size; i++)
+        {
+            if (grid.isWall(i / width, i % width))
+                continue;
+            var count = 0;
+            for (int direction = 0; direction < 4; direction++)
+            {
+                if (neighbor(i, direction) != NONE)
+                    count++;
+            }
+            degree[i] = (byte) count;
+            if (count <= 1 && i != start && i != end)
+                deadEnds.add(i);
+        }
+        while (!deadEnds.isEmpty())
+        {
+            var cur = deadEnds.poll();
+            set(filled, cur);
+            for (int direction = 0; direction < 4; direction++)
+            {
+                var next = neighbor(cur, direction);
+                if (next != NONE && !get(filled, next) && --degree[next] == 1 && next != start && next != end)
+                    deadEnds.add(next);
+            }
+        }
+        return bfs.search(start, end, filled);
+    }
+
+    @Override
+    public SearchCounters counters()     //Counts the breadth-first search over the squares that are left, not the filling.
+    {
+        return bfs.counters();
+    }
+}
@@ -0,0 +1,99 @@
+package Solving;
+
+import Maze.Grid;
+import Maze.Terrain;
+
+/**
+ * Dijkstra's algorithm with Dial's bucket queue for grids with small integer
+ * costs. Entering a square costs {@link Grid#getCost}, at most
+ * {@link Terrain#MAX_COST}, so every open square has a distance in
+ * [d, d + MAX_COST] where d is the distance of the square being expanded.
+ * A ring of MAX_COST + 1 buckets indexed by the distance holds them, and
+ * taking the nearest square means moving d forward to the next non-empty
+ * bucket. The search takes time linear in the number of squares plus the
+ * length of the path times MAX_COST, with no comparisons between squares.
+ * <p>
+ * A square whose distance improves is pushed again and the stale entry is
+ * skipped when it comes out.
+ */
+public class Dial extends GridSearch
+{
+    private static final int BUCKETS = Terrain.MAX_COST + 1;
+
+    private final int[] distance;
+    private final int[] parent;
+    private final long[] closed;
+    private final long[] seen;          //Squares with a known distance. Their distance is valid only while the bit is set.
+    private final IntStack[] buckets = new IntStack[BUCKETS];  //Indexed by distance % BUCKETS.
+    private final SearchCounters counters = new SearchCounters();
+
+    public Dial(Grid grid)
+    {
+        super(grid);
+        distance = new int[size];
+        parent = new int[size];
+        closed = newBitSet(size);
+        seen = newBitSet(size);
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new IntStack();
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        clear(closed);
+        clear(seen);
+        for (var bucket : buckets)
+            bucket.clear();
+        counters.reset();
+
+        distance[start] = 0;
+        parent[start] = start;
+        set(seen, start);
+        buckets[0].push(start);
+        counters.pushes++;
+        var open = 1;
+        counters.open(open);
+        var current = 0;
+        while (open > 0)
+        {
+            var bucket = buckets[current % BUCKETS];
+            if (bucket.isEmpty())
+            {
+                current++;
+                continue;
+            }
+            var cur = bucket.pop();
+            open--;
+            if (get(closed, cur) || distance[cur] != current)
+                continue;                               //A stale entry of a square that was reached cheaper later.
+            if (cur == end)
+                return pathTo(parent, start, end);
+            set(closed, cur);
+            counters.expanded++;
+            for (int direction = 0; direction < 4; direction++)
+            {
+                var next = neighbor(cur, direction);
+                if (next == NONE || get(closed, next))
+                    continue;
+                var cost = current + grid.getCost(next / width, next % width);
+                if (get(seen, next) && cost >= distance[next])
+                    continue;
+                set(seen, next);
+                distance[next] = cost;
+                parent[next] = cur;
+                buckets[cost % BUCKETS].push(next);
+                counters.pushes++;
+                open++;
+            }
+            counters.open(open);
+        }
+        return new int[0];
+    }
+
+    @Override
+    public SearchCounters counters()
+    {
+        return counters;
+    }
+}
@@ -1,18 +1,15 @@
 package Solving;
 
 import Maze.Cell;
+import Maze.Grid;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
 
 import static java.util.Comparator.comparingInt;
-import static Maze.Cell.Type.ESCAPE;
 
-public class Fugitive 
+public class Fugitive implements Solver
 {
     private static final int[][] DELTAS = {{-1, 0}, {0, -1}, {0, 1}, {1, 0}};       //Moves to up, left, right and down from the current cell.
     private int height;                         //The height of the maze in nodes.
@@ -28,34 +25,35 @@ public class Fugitive
      * and start and end cells. Creates a grid of nodes
      * based on that.
      *
-     * @param grid  a grid of cells of a maze
+     * @param grid  a grid of squares of a maze
      * @param start a start point to find a path from
      * @param end   an end point to find a path to
      */
-    public Fugitive(Cell[][] grid, Cell start, Cell end) //Constructs new object with given grid of cells and start and end cells. Creates a grid of nodes based on it.
+    public Fugitive(Grid grid, Cell start, Cell end) //Constructs new object with given grid of cells and start and end cells. Creates a grid of nodes based on it.
     {
-        this.height = grid.length;
-        this.width = grid[0].length;
+        this.height = grid.getHeight();
+        this.width = grid.getWidth();
         this.grid = new Node[height][width];
-        this.start = new Node(start.getRow(), start.getColumn(), false);
-        this.end = new Node(end.getRow(), end.getColumn(), false);
+        this.start = new Node(start.getRow(), start.getColumn(), false, grid.getCost(start.getRow(), start.getColumn()));
+        this.end = new Node(end.getRow(), end.getColumn(), false, grid.getCost(end.getRow(), end.getColumn()));
         createNodes(grid);
     }
 
-    private void createNodes(Cell[][] grid)         //For each cell in a given grid it creates the corresponding node in a grid of nodes. Calculates an estimated cost
+    private void createNodes(Grid grid)         //For each cell in a given grid it creates the corresponding node in a grid of nodes. Calculates an estimated cost
     {                                               //to the end for each node.
         for (int i = 0; i < height; i++) 
         {
             for (int j = 0; j < width; j++) 
             {
-                var node = new Node(i, j, grid[i][j].isWall());
+                var node = new Node(i, j, grid.isWall(i, j), grid.getCost(i, j));
                 node.calcHeuristicTo(end);
                 this.grid[i][j] = node;
             }
         }
     }
 
-    public List<Cell> findEscape()      //Find a path from the start to the end using A* search algorithm
+    @Override
+    public CompactPath findPath()       //Find a path from the start to the end using A* search algorithm
     {
         open.add(start);
         while (!open.isEmpty()) 
@@ -66,7 +64,7 @@ public class Fugitive
             closed.add(cur);
             updateNeighbors(cur);
         }
-        return new ArrayList<>();
+        return CompactPath.EMPTY;
     }
 
     private boolean isEnd(Node currentNode)     // Check if a node is the end point to find a path to.
@@ -74,22 +72,24 @@ public class Fugitive
         return currentNode.equals(end);
     }
 
-    private List<Cell> reconstructPath(Node cur)    //Reconstructs the path from the given node to the start node, i.e. node having no parent. Returns a
-    {                                               //list of cells in the format: start -> ... -> cur.
-        var path = new LinkedList<Cell>();
-        path.add(toCell(cur));
-        while (cur.getParent() != cur) 
+    private CompactPath reconstructPath(Node cur)   //Reconstructs the path from the given node to the start node, i.e. node having no parent. Moves are
+    {                                               //written from the last one backwards, so no intermediate list is needed.
+        var steps = 0;
+        for (var node = cur; node.getParent() != node; node = node.getParent())
+            steps++;
+        var moves = CompactPath.newMoves(steps);
+        for (int i = steps - 1; i >= 0; i--)
         {
             var parent = cur.getParent();
-            path.addFirst(toCell(parent));
+            CompactPath.setMove(moves, i, CompactPath.direction(toIndex(parent), toIndex(cur), width));
             cur = parent;
         }
-        return path;
+        return new CompactPath(cur.getRow(), cur.getColumn(), steps, moves);
     }
 
-    private Cell toCell(Node node)          //Converts a node back to the cell format. Cell type is escape path.
+    private int toIndex(Node node)
     {
-        return new Cell(node.getRow(), node.getColumn(), ESCAPE);
+        return node.getRow() * width + node.getColumn();
     }
 
     /**
@@ -0,0 +1,87 @@
+package Solving;
+
+import Maze.Grid;
+
+import java.util.Arrays;
+
+abstract class GridSearch implements PathFinder     //Common helpers of the searches that work with square indices.
+{
+    static final int NONE = -1;
+
+    final Grid grid;
+    final int height;
+    final int width;
+    final int size;
+
+    GridSearch(Grid grid)
+    {
+        this.grid = grid;
+        height = grid.getHeight();
+        width = grid.getWidth();
+        size = Math.multiplyExact(height, width);
+    }
+
+    /**
+     * Returns the passage next to a square in the given direction or
+     * {@link #NONE} if it is a wall or out of bounds. Directions go clockwise:
+     * 0 - up, 1 - right, 2 - down, 3 - left.
+     */
+    int neighbor(int index, int direction)
+    {
+        var row = index / width;
+        var column = index - row * width;
+        switch (direction)
+        {
+            case 0:
+                row--;
+                break;
+            case 1:
+                column++;
+                break;
+            case 2:
+                row++;
+                break;
+            default:
+                column--;
+                break;
+        }
+        if (row < 0 || row >= height || column < 0 || column >= width || grid.isWall(row, column))
+            return NONE;
+        return row * width + column;
+    }
+
+    static long[] newBitSet(int size)
+    {
+        return new long[(size + 63) >>> 6];
+    }
+
+    static boolean get(long[] bits, int index)
+    {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void set(long[] bits, int index)
+    {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    static void clear(long[] bits)
+    {
+        Arrays.fill(bits, 0);
+    }
+
+    static int[] pathTo(int[] parent, int start, int end)   //Follows the parents back from the end to the start and returns the path in
+    {                                                       //the format: start -> ... -> end.
+        var length = 1;
+        for (int cur = end; cur != start; cur = parent[cur])
+            length++;
+        var path = new int[length];
+        var cur = end;
+        for (int i = length - 1; i >= 0; i--)
+        {
+            path[i] = cur;
+            cur = parent[cur];
+        }
+        return path;
+    }
+}
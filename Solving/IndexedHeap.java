@@ -0,0 +1,108 @@
+package Solving;
+
+import java.util.Arrays;
+
+class IndexedHeap                       //A binary min-heap of ids in the range [0, capacity) ordered by an int key.
+{                                       //Keeps the position of every id, so contains is O(1) and decreaseKey is O(log n).
+
+    private final int[] heap;           //Ids in the heap order.
+    private final int[] position;       //The position of an id in the heap or -1 if it is not there.
+    private final int[] key;            //The key of an id while it is in the heap.
+    private int size;
+
+    IndexedHeap(int capacity)
+    {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean contains(int id)
+    {
+        return position[id] >= 0;
+    }
+
+    void add(int id, int priority)
+    {
+        key[id] = priority;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    void decreaseKey(int id, int priority)      //Lowers the key of an id that is in the heap.
+    {
+        key[id] = priority;
+        siftUp(position[id]);
+    }
+
+    int poll()                                  //Removes and returns the id with the smallest key.
+    {
+        var top = heap[0];
+        position[top] = -1;
+        if (--size > 0)
+        {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    void clear()
+    {
+        for (int i = 0; i < size; i++)
+            position[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i)
+    {
+        var id = heap[i];
+        var priority = key[id];
+        while (i > 0)
+        {
+            var parent = (i - 1) >>> 1;
+            var other = heap[parent];
+            if (priority >= key[other])
+                break;
+            heap[i] = other;
+            position[other] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    private void siftDown(int i)
+    {
+        var id = heap[i];
+        var priority = key[id];
+        var half = size >>> 1;
+        while (i < half)
+        {
+            var child = 2 * i + 1;
+            var right = child + 1;
+            if (right < size && key[heap[right]] < key[heap[child]])
+                child = right;
+            if (priority <= key[heap[child]])
+                break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+}
@@ -0,0 +1,53 @@
+package Solving;
+
+import java.util.Arrays;
+
+class IntRingQueue                      //A FIFO queue of ints in a ring buffer with a power of two capacity that grows when full.
+{
+    private int[] elements;
+    private int head;
+    private int size;
+
+    IntRingQueue(int capacity)
+    {
+        elements = new int[Integer.highestOneBit(Math.max(2, capacity - 1)) << 1];
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    void add(int value)
+    {
+        if (size == elements.length)
+            grow();
+        elements[(head + size++) & (elements.length - 1)] = value;
+    }
+
+    int poll()
+    {
+        var value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    void clear()
+    {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow()
+    {
+        var grown = Arrays.copyOf(elements, elements.length * 2);
+        System.arraycopy(elements, 0, grown, elements.length, head);       //The wrapped part goes after the end of the old array.
+        elements = grown;
+    }
+}
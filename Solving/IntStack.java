@@ -0,0 +1,31 @@
+package Solving;
+
+import java.util.Arrays;
+
+class IntStack                          //A LIFO stack of ints in an array that grows when full. Used as a bucket of the bucket queues.
+{
+    private int[] elements = new int[64];
+    private int size;
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    void push(int value)
+    {
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, 2 * size);
+        elements[size++] = value;
+    }
+
+    int pop()
+    {
+        return elements[--size];
+    }
+
+    void clear()
+    {
+        size = 0;
+    }
+}
@@ -0,0 +1,38 @@
+package Solving;
+
+import Metrics.MazeMetrics;
+
+class MeteredFinder implements PathFinder   //Reports every search of a finder to MazeMetrics. When metrics and the solve event are disabled
+{                                           //a search costs one extra check.
+    private final Strategy strategy;
+    private final PathFinder finder;
+
+    MeteredFinder(Strategy strategy, PathFinder finder)
+    {
+        this.strategy = strategy;
+        this.finder = finder;
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        if (!MazeMetrics.solveActive())
+            return finder.search(start, end);
+        var begin = System.nanoTime();
+        var path = finder.search(start, end);
+        var nanos = System.nanoTime() - begin;
+        var counters = finder.counters();
+        if (counters == null)
+            MazeMetrics.recordSolve(strategy.name(), nanos, 0, 0, 0, 0, path.length);
+        else
+            MazeMetrics.recordSolve(strategy.name(), nanos, counters.getExpanded(), counters.getPushes(),
+                                    counters.getDecreaseKeys(), counters.getPeakOpen(), path.length);
+        return path;
+    }
+
+    @Override
+    public SearchCounters counters()
+    {
+        return finder.counters();
+    }
+}
@@ -5,21 +5,22 @@ import java.util.Objects;
 class Node 
 {
 
-    private static final int EDGE_COST = 1;                   //The cost of moving to neighboring nodes.
     private final int row;                                    //The vertical coordinate of this node in a grid.
     private final int column;                                 //The horizontal coordinate of this node in a grid.
     private final boolean isWall;                             //Indicates if this node is a wall.
+    private final int cost;                                   //The cost of moving to this node from a neighboring node.
 
     private Node parent;           // A parent node is saved to reconstruct a path if it goes through this node. If node has no parent its parent is equal to this node
     private int g;                 //The cost of the path from the start node to this node.
     private int h;                 //The estimated cost of the path from this node to the end node.
     private int f;                  //The final cost of the path from the start node to the end node through this node.
 
-    Node(int row, int column, boolean isWall)     // Creates a new node with given row and column and sets its parent to itself.
+    Node(int row, int column, boolean isWall, int cost)     // Creates a new node with given row and column and sets its parent to itself.
     {
         this.row = row;
         this.column = column;
         this.isWall = isWall;
+        this.cost = cost;
         parent = this;
     }
 
@@ -56,13 +57,13 @@ class Node
 
     boolean hasBetterPath(Node node)   //Checks if the path through the given node is better (i.e. cheaper) than the current path.
     {
-        return node.g + EDGE_COST < this.g;
+        return node.g + cost < this.g;
     }
 
     void updatePath(Node node)          //Updates the path such that the given node becomes the new parent and recalculates the final cost through it.
     {
         this.parent = node;
-        this.g = node.g + EDGE_COST;
+        this.g = node.g + cost;
         f = g + h;
     }
 
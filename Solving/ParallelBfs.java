@@ -0,0 +1,122 @@
+package Solving;
+
+import Maze.Grid;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A level-synchronous breadth-first search. Every level of the frontier is
+ * split into chunks that are expanded in parallel on a fork-join pool.
+ * A square is claimed by the compare-and-set of its bit in a packed visited
+ * array, and the winner records its parent in a flat int array. The next
+ * frontier is the concatenation of the squares claimed by every chunk.
+ * <p>
+ * The path is a shortest one. Narrow frontiers are expanded by one task,
+ * so the search only spreads over the pool where a level is wide enough.
+ */
+public class ParallelBfs extends GridSearch
+{
+    private static final int CHUNK = 1024;      //The number of frontier squares expanded by one task.
+
+    private final ForkJoinPool pool;
+    private final AtomicLongArray visited;
+    private final int[] parent;
+
+    public ParallelBfs(Grid grid, ForkJoinPool pool)
+    {
+        super(grid);
+        this.pool = pool;
+        visited = new AtomicLongArray((size + 63) >>> 6);
+        parent = new int[size];
+    }
+
+    public ParallelBfs(Grid grid)
+    {
+        this(grid, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        for (int i = 0; i < visited.length(); i++)
+            visited.set(i, 0);
+        claim(start);
+        parent[start] = start;
+        var frontier = new int[]{start};
+        while (frontier.length > 0 && !isVisited(end))
+        {
+            var current = frontier;
+            frontier = pool.invoke(new Expand(current, 0, current.length));
+        }
+        return isVisited(end) ? pathTo(parent, start, end) : new int[0];
+    }
+
+    private boolean isVisited(int index)
+    {
+        return (visited.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    private boolean claim(int index)            //Sets the visited bit of a square. Returns true only for the thread that set it.
+    {
+        var word = index >>> 6;
+        var mask = 1L << index;
+        while (true)
+        {
+            var current = visited.get(word);
+            if ((current & mask) != 0)
+                return false;
+            if (visited.compareAndSet(word, current, current | mask))
+                return true;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class Expand extends RecursiveTask<int[]>  //Expands a range of the frontier and returns the squares claimed for the next level.
+    {
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+
+        Expand(int[] frontier, int from, int to)
+        {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute()
+        {
+            if (to - from > CHUNK)
+            {
+                var middle = (from + to) >>> 1;
+                var left = new Expand(frontier, from, middle);
+                left.fork();
+                var right = new Expand(frontier, middle, to).compute();
+                var leftResult = left.join();
+                var joined = Arrays.copyOf(leftResult, leftResult.length + right.length);
+                System.arraycopy(right, 0, joined, leftResult.length, right.length);
+                return joined;
+            }
+            var next = new int[4 * (to - from)];
+            var count = 0;
+            for (int i = from; i < to; i++)
+            {
+                var cur = frontier[i];
+                for (int direction = 0; direction < 4; direction++)
+                {
+                    var neighbor = neighbor(cur, direction);
+                    if (neighbor != NONE && claim(neighbor))
+                    {
+                        parent[neighbor] = cur;
+                        next[count++] = neighbor;
+                    }
+                }
+            }
+            return Arrays.copyOf(next, count);
+        }
+    }
+}
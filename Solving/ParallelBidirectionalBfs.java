@@ -0,0 +1,223 @@
+package Solving;
+
+import Maze.Grid;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A breadth-first search from both ends at once: the caller thread expands
+ * from the start while a helper task expands from the end. The sides share
+ * a lock-free visited array with two bits per square, one for every side,
+ * set with compare-and-set, so exactly one side sees that a square is
+ * visited by both and records it as a meeting square.
+ * <p>
+ * The sides expand one level at a time and wait for each other on a phaser
+ * after every level. After level r every square at most r steps from either
+ * end is visited by that side, so a shortest path of up to 2r steps has a
+ * meeting square on it by then. The search stops after the first level with
+ * a meeting and joins the path through the meeting square with the fewest
+ * steps, which is a shortest path also in mazes with cycles.
+ * <p>
+ * The helpers run on a shared executor of virtual threads, or of cached
+ * daemon threads where the runtime has no virtual threads. A search always
+ * waits for its helper before returning, rethrows its failure and throws
+ * IllegalStateException if the caller is interrupted.
+ */
+public class ParallelBidirectionalBfs extends GridSearch
+{
+    private static final int FROM_START = 0;
+    private static final int FROM_END = 1;
+    private static final long NO_MEETING = Long.MAX_VALUE;
+    private static final ExecutorService HELPERS = newHelpers();
+
+    private final AtomicLongArray visited;      //Bit 2 * i marks a square visited from the start, bit 2 * i + 1 from the end.
+    private final int[][] parent = new int[2][];
+    private final int[][] distance = new int[2][];
+    private final IntRingQueue[] queues = new IntRingQueue[2];
+    private final AtomicLong best = new AtomicLong(NO_MEETING);    //The shortest meeting so far: the length in the high half, the square in the low one.
+
+    public ParallelBidirectionalBfs(Grid grid)
+    {
+        super(grid);
+        visited = new AtomicLongArray((int) ((2L * size + 63) >>> 6));
+        for (int side = 0; side < 2; side++)
+        {
+            parent[side] = new int[size];
+            distance[side] = new int[size];
+            queues[side] = new IntRingQueue(Math.min(size, 1 << 16));
+        }
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        for (int i = 0; i < visited.length(); i++)
+            visited.set(i, 0);
+        best.set(NO_MEETING);
+        if (start == end)
+            return new int[]{start};
+        for (var queue : queues)
+            queue.clear();
+        mark(start, start, 0, FROM_START);
+        mark(end, end, 0, FROM_END);
+        queues[FROM_START].add(start);
+        queues[FROM_END].add(end);
+
+        var levels = new Phaser(2)
+        {
+            @Override
+            protected boolean onAdvance(int phase, int parties)     //Runs when both sides have expanded a level and terminates the phaser to stop them.
+            {
+                return best.get() != NO_MEETING || queues[FROM_START].isEmpty() || queues[FROM_END].isEmpty();
+            }
+        };
+        Future<?> helper = HELPERS.submit(() -> {
+            expand(FROM_END, levels);
+            return null;
+        });
+        var interrupted = false;
+        Throwable failure = null;
+        try
+        {
+            expand(FROM_START, levels);
+        }
+        catch (InterruptedException e)
+        {
+            interrupted = true;
+        }
+        finally
+        {
+            while (true)                        //The helper writes to the shared arrays until it returns, so it is always waited for.
+            {
+                try
+                {
+                    helper.get();
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+                catch (ExecutionException e)
+                {
+                    failure = e.getCause();
+                    break;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+        if (failure != null)
+            throw new IllegalStateException("The search from the end failed", failure);
+        if (interrupted)
+            throw new IllegalStateException("The search was interrupted");
+        var meeting = best.get();
+        return meeting == NO_MEETING ? new int[0] : join(start, end, (int) meeting);
+    }
+
+    /**
+     * Expands one side level by level until the phaser terminates: after a
+     * level with a meeting, when a side runs out of squares or when the
+     * other side stops early. Terminates the phaser itself when it stops
+     * for any reason, so the other side never waits for it in vain.
+     */
+    private void expand(int side, Phaser levels) throws InterruptedException
+    {
+        try
+        {
+            var queue = queues[side];
+            var other = 1 - side;
+            while (true)
+            {
+                for (int count = queue.size(); count > 0 && !levels.isTerminated(); count--)
+                {
+                    var cur = queue.poll();
+                    for (int direction = 0; direction < 4; direction++)
+                    {
+                        var next = neighbor(cur, direction);
+                        if (next == NONE || isVisited(next, side))
+                            continue;
+                        if (mark(next, cur, distance[side][cur] + 1, side))
+                            best.accumulateAndGet((long) (distance[side][next] + distance[other][next]) << 32 | next, Math::min);
+                        queue.add(next);
+                    }
+                }
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                if (levels.awaitAdvanceInterruptibly(levels.arrive()) < 0)
+                    return;
+            }
+        }
+        finally
+        {
+            levels.forceTermination();
+        }
+    }
+
+    private boolean isVisited(int index, int side)
+    {
+        var bit = 2L * index + side;
+        return (visited.get((int) (bit >>> 6)) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Records the parent and the distance of a square and marks it visited
+     * by a side. They are written before the compare-and-set publishes the
+     * mark, so the other side sees them once it sees the mark.
+     *
+     * @return true if the other side has already visited the square
+     */
+    private boolean mark(int index, int from, int length, int side)
+    {
+        parent[side][index] = from;
+        distance[side][index] = length;
+        var bit = 2L * index + side;
+        var word = (int) (bit >>> 6);
+        var mask = 1L << bit;
+        var otherMask = side == FROM_START ? mask << 1 : mask >>> 1;
+        while (true)
+        {
+            var current = visited.get(word);
+            if (visited.compareAndSet(word, current, current | mask))
+                return (current & otherMask) != 0;
+        }
+    }
+
+    private int[] join(int start, int end, int middle)  //Joins the path from the start to the meeting square with the path from there to the end.
+    {
+        var first = pathTo(parent[FROM_START], start, middle);
+        var second = pathTo(parent[FROM_END], end, middle);
+        var path = new int[first.length + second.length - 1];
+        System.arraycopy(first, 0, path, 0, first.length);
+        for (int i = 1; i < second.length; i++)
+            path[first.length - 1 + i] = second[second.length - 1 - i];
+        return path;
+    }
+
+    /**
+     * Creates the executor of the helpers. Virtual threads are looked up
+     * reflectively like in the server; the fallback threads are daemons so
+     * an idle helper does not keep the JVM alive.
+     */
+    private static ExecutorService newHelpers()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return Executors.newCachedThreadPool(task -> {
+                var thread = new Thread(task, "bidirectional-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
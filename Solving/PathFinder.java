@@ -0,0 +1,11 @@
+package Solving;
+
+public interface PathFinder             //A search over one grid that works with square indices (row * width + column). Instances may keep
+{                                       //scratch buffers between searches, so an instance is used by one thread at a time.
+    int[] search(int start, int end);   //Returns the indices of the path start -> ... -> end or an empty array if there is none.
+
+    default SearchCounters counters()   //The counters of the last search or null if this search does not count its work.
+    {
+        return null;
+    }
+}
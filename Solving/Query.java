@@ -0,0 +1,52 @@
+package Solving;
+
+import Maze.Cell;
+
+public final class Query                //A request for a path between two squares of a maze.
+{
+    private final int startRow;
+    private final int startColumn;
+    private final int endRow;
+    private final int endColumn;
+
+    public Query(int startRow, int startColumn, int endRow, int endColumn)
+    {
+        this.startRow = startRow;
+        this.startColumn = startColumn;
+        this.endRow = endRow;
+        this.endColumn = endColumn;
+    }
+
+    public Query(Cell start, Cell end)
+    {
+        this(start.getRow(), start.getColumn(), end.getRow(), end.getColumn());
+    }
+
+    public int getStartRow()
+    {
+        return startRow;
+    }
+
+    public int getStartColumn()
+    {
+        return startColumn;
+    }
+
+    public int getEndRow()
+    {
+        return endRow;
+    }
+
+    public int getEndColumn()
+    {
+        return endColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "Query{" +
+            "start=" + startRow + "," + startColumn +
+            ", end=" + endRow + "," + endColumn +
+            '}';
+    }
+}
@@ -0,0 +1,43 @@
+package Solving;
+
+public final class SearchCounters       //The work done by the last search of a PathFinder. The searches update it with plain field writes,
+{                                       //so counting costs about as much as the loop variables next to it.
+    long expanded;                      //Squares taken from the open set or the queue.
+    long pushes;                        //Squares added to the open set or the queue.
+    long decreaseKeys;                  //Keys lowered in the open set.
+    int peakOpen;                       //The largest size of the open set or the queue.
+
+    void reset()
+    {
+        expanded = 0;
+        pushes = 0;
+        decreaseKeys = 0;
+        peakOpen = 0;
+    }
+
+    void open(int size)
+    {
+        if (size > peakOpen)
+            peakOpen = size;
+    }
+
+    public long getExpanded()
+    {
+        return expanded;
+    }
+
+    public long getPushes()
+    {
+        return pushes;
+    }
+
+    public long getDecreaseKeys()
+    {
+        return decreaseKeys;
+    }
+
+    public int getPeakOpen()
+    {
+        return peakOpen;
+    }
+}
@@ -0,0 +1,19 @@
+package Solving;
+
+import Maze.Cell;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public interface Solver                 //Finds a path between two squares of a maze.
+{
+    CompactPath findPath();             //Returns the path from the start to the end as a compact move stream, empty if there is none.
+
+    default List<Cell> findEscape()     //Returns the path in the format: start -> ... -> end, or an empty list if there is none.
+    {                                   //Creates a Cell per square, prefer findPath for long paths.
+        var path = findPath();
+        var cells = new ArrayList<Cell>(path.getLength());
+        path.forEach(cells::add);
+        return cells;
+    }
+}
@@ -0,0 +1,166 @@
+package Solving;
+
+import Maze.Cell;
+import Maze.Grid;
+
+public enum Strategy                    //Available solvers. A_STAR_NODES is the original object based implementation. A_STAR, A_STAR_NODES and
+                                        //DIAL follow the terrain costs of a weighted grid, the others find paths with the fewest steps.
+{
+    A_STAR("A* search", 20)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new AStar(grid);
+        }
+    },
+    A_STAR_NODES("A* search over Node objects", 160)
+    {
+        @Override
+        public Solver create(Grid grid, Cell start, Cell end)
+        {
+            checkCapacity(grid);
+            return new Fugitive(grid, start, end);
+        }
+
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            var width = grid.getWidth();
+            return (start, end) ->
+                create(grid, grid.getCell(start / width, start % width), grid.getCell(end / width, end % width))
+                    .findPath()
+                    .toIndices(width);
+        }
+    },
+    A_STAR_BUCKETS("A* search with a bucket queue", 9)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new BucketAStar(grid);
+        }
+    },
+    DIAL("Dijkstra with a bucket queue (uses the terrain costs)", 9)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new Dial(grid);
+        }
+    },
+    BFS("Breadth-first search", 5)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new Bfs(grid);
+        }
+    },
+    BIDIRECTIONAL_BFS("Bidirectional breadth-first search", 17)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new BidirectionalBfs(grid);
+        }
+    },
+    PARALLEL_BIDIRECTIONAL_BFS("Bidirectional breadth-first search on two threads", 17)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new ParallelBidirectionalBfs(grid);
+        }
+    },
+    PARALLEL_BFS("Level-synchronous breadth-first search on the fork-join pool", 9)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new ParallelBfs(grid);
+        }
+    },
+    DEAD_END_FILLING("Dead-end filling", 7)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new DeadEndFilling(grid);
+        }
+    },
+    WALL_FOLLOWER("Wall follower (right hand)", 8)
+    {
+        @Override
+        PathFinder newFinder(Grid grid)
+        {
+            return new WallFollower(grid);
+        }
+    };
+
+    private final String description;
+    private final int bytesPerSquare;   //About how much heap a search takes for every square of the grid.
+
+    Strategy(String description, int bytesPerSquare)
+    {
+        this.description = description;
+        this.bytesPerSquare = bytesPerSquare;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    abstract PathFinder newFinder(Grid grid);
+
+    public PathFinder finder(Grid grid)                    //Creates a reusable search over the grid for one thread. It reports to
+    {                                                      //MazeMetrics while metrics or the solve event are enabled.
+        checkCapacity(grid);
+        return new MeteredFinder(this, newFinder(grid));
+    }
+
+    /**
+     * Checks that the solver can take the grid before any of its arrays
+     * are allocated. The solvers index squares with ints and keep state for
+     * every square on the heap, so a maze mapped from a file may be too
+     * large for them even though it opens.
+     *
+     * @throws IllegalArgumentException if the grid has more squares than an
+     *                                  int can index or the search would not
+     *                                  fit into the maximum heap size
+     */
+    public void checkCapacity(Grid grid)
+    {
+        var squares = (long) grid.getHeight() * grid.getWidth();
+        if (squares > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Cannot solve a maze of " + squares + " squares, "
+                                               + "the solvers handle at most " + Integer.MAX_VALUE);
+        var needed = squares * bytesPerSquare;
+        var heap = Runtime.getRuntime().maxMemory();
+        if (needed > heap)
+            throw new IllegalArgumentException("Cannot solve a maze of " + squares + " squares with " + name()
+                                               + ", it needs about " + (needed >> 20) + " MB of heap and the heap is "
+                                               + (heap >> 20) + " MB");
+    }
+
+    public Solver create(Grid grid, Cell start, Cell end)
+    {
+        return () -> findPath(grid, index(grid, start), index(grid, end));
+    }
+
+    public CompactPath findPath(Grid grid, int start, int end)     //Solves and encodes the path as a compact move stream.
+    {
+        return CompactPath.of(solve(grid, start, end), grid.getWidth());
+    }
+
+    public int[] solve(Grid grid, int start, int end)      //Returns the indices (row * width + column) of the path start -> ... -> end
+    {                                                      //or an empty array if there is none.
+        return finder(grid).search(start, end);
+    }
+
+    static int index(Grid grid, Cell cell)
+    {
+        return cell.getRow() * grid.getWidth() + cell.getColumn();
+    }
+}
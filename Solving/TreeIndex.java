@@ -0,0 +1,532 @@
+package Solving;
+
+import Maze.Grid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * An index over the passages of a perfect maze. Passages of such a maze
+ * form a tree, so the path between two squares is unique. The index works
+ * on the cells of the maze, the squares with both coordinates odd, which
+ * are a quarter of all squares: the squares between two cells are the
+ * edges of the tree and the entrance and the exit hang off the first and
+ * the last row of cells. It keeps the direction to the parent of every
+ * cell in 2 bits, and the depth and a jump pointer (Myers' skew-binary
+ * jump pointers) of every cell, which let any ancestor be reached in
+ * O(log n) steps with O(n) memory.
+ * <p>
+ * Distances are answered in O(log n) through the lowest common ancestor,
+ * paths in time proportional to their length. Queries take square indices
+ * (row * width + column) of any passage. Only the parent directions are
+ * written to a channel, so a saved index takes 2 bits per cell; the depths
+ * and the jumps are rebuilt in one linear pass when it is read.
+ */
+public class TreeIndex
+{
+    private static final int[] ROW_STEP = {-1, 0, 1, 0};      //Directions go clockwise: 0 - up, 1 - right, 2 - down, 3 - left.
+    private static final int[] COLUMN_STEP = {0, 1, 0, -1};
+    private static final int NONE = -1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int height;
+    private final int width;
+    private final int cellRows;         //The height of the maze in an imaginary edge form.
+    private final int cellColumns;      //The width of the maze in an imaginary edge form.
+    private final int exitColumn;
+    private final int root;             //The root cell.
+    private final long[] directions;    //Two bits per cell: the direction to its parent. Unused for the root.
+    private final int[] depth;          //The number of cells between a cell and the root.
+    private final int[] jump;           //An ancestor cell to skip to while walking up the tree.
+
+    private TreeIndex(int height, int width, int root, long[] directions)
+    {
+        this.height = height;
+        this.width = width;
+        cellRows = (height - 1) / 2;
+        cellColumns = (width - 1) / 2;
+        exitColumn = width - 3 + width % 2;
+        this.root = root;
+        this.directions = directions;
+        depth = new int[cellRows * cellColumns];
+        jump = new int[depth.length];
+        link();
+    }
+
+    /**
+     * Builds the index with a breadth-first traversal of the cells from the
+     * given root cell.
+     *
+     * @throws IllegalArgumentException if the root is not a cell, the
+     *                                  passages are not laid out on cells
+     *                                  like in a generated maze or they are
+     *                                  not a single tree, i.e. the maze is
+     *                                  disconnected or has cycles
+     */
+    public static TreeIndex build(Grid grid, int rootRow, int rootColumn)
+    {
+        var height = grid.getHeight();
+        var width = grid.getWidth();
+        Math.multiplyExact(height, width);
+        var cellRows = (height - 1) / 2;
+        var cellColumns = (width - 1) / 2;
+        if ((rootRow & 1) == 0 || (rootColumn & 1) == 0 || rootRow / 2 >= cellRows || rootColumn / 2 >= cellColumns
+            || grid.isWall(rootRow, rootColumn))
+            throw new IllegalArgumentException("The root of the tree must be a cell");
+        var links = countLinks(grid);
+        var cells = cellRows * cellColumns;
+        if (links > cells - 1)
+            throw new IllegalArgumentException("The maze has cycles, its passages are not a tree");
+
+        var root = rootRow / 2 * cellColumns + rootColumn / 2;
+        var directions = new long[(int) ((2L * cells + 63) >>> 6)];
+        var seen = new long[(cells + 63) >>> 6];
+        var queue = new int[cells];
+        var head = 0;
+        var tail = 0;
+        queue[tail++] = root;
+        seen[root >>> 6] |= 1L << root;
+        while (head < tail)
+        {
+            var cur = queue[head++];
+            var row = cur / cellColumns;
+            var column = cur % cellColumns;
+            for (int direction = 0; direction < 4; direction++)
+            {
+                var nextRow = row + ROW_STEP[direction];
+                var nextColumn = column + COLUMN_STEP[direction];
+                if (nextRow < 0 || nextRow >= cellRows || nextColumn < 0 || nextColumn >= cellColumns
+                    || grid.isWall(2 * row + 1 + ROW_STEP[direction], 2 * column + 1 + COLUMN_STEP[direction]))
+                    continue;
+                var next = nextRow * cellColumns + nextColumn;
+                if ((seen[next >>> 6] & 1L << next) != 0)
+                    continue;
+                seen[next >>> 6] |= 1L << next;
+                setDirection(directions, next, (direction + 2) & 3);
+                queue[tail++] = next;
+            }
+        }
+        if (tail != cells)
+            throw new IllegalArgumentException("The maze is not connected, its passages are not a tree");
+        return new TreeIndex(height, width, root, directions);
+    }
+
+    /**
+     * Counts the passages between two cells and checks that every other
+     * square is a wall, except the cells, the entrance and the exit.
+     */
+    private static long countLinks(Grid grid)
+    {
+        var height = grid.getHeight();
+        var width = grid.getWidth();
+        var lastRow = 2 * ((height - 1) / 2) - 1;        //The last row and column of cells.
+        var lastColumn = 2 * ((width - 1) / 2) - 1;
+        var exitColumn = width - 3 + width % 2;
+        long links = 0;
+        for (int i = 0; i < height; i++)
+        {
+            for (int j = 0; j < width; j++)
+            {
+                var oddRow = (i & 1) != 0;
+                var oddColumn = (j & 1) != 0;
+                var inside = i <= lastRow && j <= lastColumn;
+                if (oddRow && oddColumn && inside)
+                {
+                    if (grid.isWall(i, j))
+                        throw new IllegalArgumentException("The maze is not connected, its passages are not a tree");
+                }
+                else if (!grid.isWall(i, j))
+                {
+                    if (inside && i > 0 && j > 0 && oddRow != oddColumn)
+                        links++;
+                    else if (!(i == 0 && j == 1) && !(j == exitColumn && i > lastRow))
+                        throw new IllegalArgumentException("The passages are not laid out on cells, the square "
+                                                           + i + "," + j + " is not a wall");
+                }
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Computes the depth and the jump of every cell in one pass over the
+     * cells. A cell whose parent is not known yet first walks up to a known
+     * ancestor; every cell is walked over once, so the pass is linear.
+     *
+     * @throws IllegalArgumentException if a parent is outside of the maze or
+     *                                  the parents have a cycle
+     */
+    private void link()
+    {
+        Arrays.fill(depth, NONE);
+        depth[root] = 0;
+        jump[root] = root;
+        var chain = new IntStack();
+        for (int cell = 0; cell < depth.length; cell++)
+        {
+            var cur = cell;
+            while (depth[cur] == NONE)
+            {
+                depth[cur] = -2;                        //On the current chain.
+                chain.push(cur);
+                cur = parent(cur);
+                if (cur == NONE)
+                    throw new IllegalArgumentException("Cannot load the maze. A parent in the tree index is outside of the maze");
+            }
+            if (depth[cur] == -2)
+                throw new IllegalArgumentException("Cannot load the maze. The tree index has a cycle");
+            while (!chain.isEmpty())
+            {
+                var next = chain.pop();
+                var p = parent(next);
+                depth[next] = depth[p] + 1;
+                jump[next] = jumpFor(p);
+            }
+        }
+    }
+
+    private int jumpFor(int p)                  //If the jump of the parent and the jump of its jump cover equal distances,
+    {                                           //the new jump covers both, otherwise it is the parent itself.
+        var j = jump[p];
+        return depth[p] - depth[j] == depth[j] - depth[jump[j]] ? jump[j] : p;
+    }
+
+    private int parent(int cell)                //The parent cell, the root for the root and NONE if it is outside of the maze.
+    {
+        if (cell == root)
+            return root;
+        var direction = (int) (directions[cell >>> 5] >>> ((cell & 31) << 1)) & 3;
+        var row = cell / cellColumns + ROW_STEP[direction];
+        var column = cell % cellColumns + COLUMN_STEP[direction];
+        if (row < 0 || row >= cellRows || column < 0 || column >= cellColumns)
+            return NONE;
+        return row * cellColumns + column;
+    }
+
+    private static void setDirection(long[] directions, int cell, int direction)
+    {
+        directions[cell >>> 5] |= (long) direction << ((cell & 31) << 1);
+    }
+
+    private int square(int cell)                //The square index of a cell.
+    {
+        return (2 * (cell / cellColumns) + 1) * width + 2 * (cell % cellColumns) + 1;
+    }
+
+    /**
+     * Finds the cells a passage square is reached through: the cell itself,
+     * both cells of a passage between two cells or the cell an entrance or
+     * an exit square hangs off. Fills the cells and the steps from the square
+     * to them as {cell, steps, cell, steps}, with NONE for a missing second cell.
+     *
+     * @return false if the square is not a passage of the tree
+     */
+    private boolean locate(int index, int[] anchors)
+    {
+        if (index < 0 || index >= height * width)
+            return false;
+        var row = index / width;
+        var column = index % width;
+        anchors[2] = NONE;
+        if (row == 0 && column == 1)
+        {
+            anchors[0] = 0;
+            anchors[1] = 1;
+            return true;
+        }
+        if (column == exitColumn && row >= 2 * cellRows)
+        {
+            anchors[0] = (cellRows - 1) * cellColumns + column / 2;
+            anchors[1] = row - (2 * cellRows - 1);
+            return true;
+        }
+        var cellRow = row / 2;
+        var cellColumn = column / 2;
+        if (row == 0 || column == 0 || cellRow > cellRows || cellColumn > cellColumns)
+            return false;
+        if ((row & 1) != 0 && (column & 1) != 0)
+        {
+            if (cellRow == cellRows || cellColumn == cellColumns)
+                return false;
+            anchors[0] = cellRow * cellColumns + cellColumn;
+            anchors[1] = 0;
+            return true;
+        }
+        int first;
+        int second;
+        if ((row & 1) != 0 && (column & 1) == 0 && cellRow < cellRows && cellColumn < cellColumns)
+        {
+            first = cellRow * cellColumns + cellColumn - 1;
+            second = first + 1;
+        }
+        else if ((row & 1) == 0 && (column & 1) != 0 && cellRow < cellRows && cellColumn < cellColumns)
+        {
+            first = (cellRow - 1) * cellColumns + cellColumn;
+            second = first + cellColumns;
+        }
+        else
+        {
+            return false;
+        }
+        if (!(first != root && parent(first) == second) && !(second != root && parent(second) == first))
+            return false;
+        anchors[0] = first;
+        anchors[1] = 1;
+        anchors[2] = second;
+        anchors[3] = 1;
+        return true;
+    }
+
+    private boolean isExit(int index)
+    {
+        return index % width == exitColumn && index / width >= 2 * cellRows;
+    }
+
+    public boolean contains(int index)          //Checks if a square is a passage of the tree.
+    {
+        return locate(index, new int[4]);
+    }
+
+    public int getRoot()                        //The square index of the root cell.
+    {
+        return square(root);
+    }
+
+    public int depth(int index)                 //The number of steps from the root cell to a square.
+    {
+        var anchors = check(index);
+        if (anchors[2] != NONE)
+            return 2 * Math.max(depth[anchors[0]], depth[anchors[2]]) - 1;
+        return 2 * depth[anchors[0]] + anchors[1];
+    }
+
+    private int ancestor(int cell, int targetDepth)     //Returns the ancestor of a cell at the given depth in O(log n).
+    {
+        while (depth[cell] > targetDepth)
+            cell = depth[jump[cell]] >= targetDepth ? jump[cell] : parent(cell);
+        return cell;
+    }
+
+    private int lowestCommonAncestor(int first, int second)
+    {
+        if (depth[first] > depth[second])
+            first = ancestor(first, depth[second]);
+        else
+            second = ancestor(second, depth[first]);
+        while (first != second)
+        {
+            if (jump[first] != jump[second])
+            {
+                first = jump[first];
+                second = jump[second];
+            }
+            else
+            {
+                first = parent(first);
+                second = parent(second);
+            }
+        }
+        return first;
+    }
+
+    private int cellDistance(int first, int second)
+    {
+        return depth[first] + depth[second] - 2 * depth[lowestCommonAncestor(first, second)];
+    }
+
+    /**
+     * Picks the cells to go through from the start and to the end: the pair
+     * with the shortest way between them. Returns {start cell, steps to it,
+     * end cell, steps from it, the distance}.
+     */
+    private int[] route(int[] from, int[] to)
+    {
+        var best = new int[]{NONE, 0, NONE, 0, Integer.MAX_VALUE};
+        for (int i = 0; i < 4 && from[i] != NONE; i += 2)
+        {
+            for (int j = 0; j < 4 && to[j] != NONE; j += 2)
+            {
+                var distance = from[i + 1] + 2 * cellDistance(from[i], to[j]) + to[j + 1];
+                if (distance < best[4])
+                {
+                    best[0] = from[i];
+                    best[1] = from[i + 1];
+                    best[2] = to[j];
+                    best[3] = to[j + 1];
+                    best[4] = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    public int distance(int first, int second)  //The number of steps between two squares.
+    {
+        var from = check(first);
+        var to = check(second);
+        if (first == second)
+            return 0;
+        if (isExit(first) && isExit(second))    //Both on the way out of the last row.
+            return Math.abs(from[1] - to[1]);
+        return route(from, to)[4];
+    }
+
+    public int distance(int startRow, int startColumn, int endRow, int endColumn)
+    {
+        return distance(startRow * width + startColumn, endRow * width + endColumn);
+    }
+
+    public int[] path(int start, int end)       //Returns the indices of the unique path start -> ... -> end.
+    {
+        var from = check(start);
+        var to = check(end);
+        var path = new int[distance(start, end) + 1];
+        if (start == end || (isExit(start) && isExit(end)))
+        {
+            for (int i = 0; i < path.length; i++)
+                path[i] = start + (end > start ? i : -i) * width;
+            return path;
+        }
+        var route = route(from, to);
+        var first = route[0];
+        var last = route[2];
+        var lca = lowestCommonAncestor(first, last);
+        var k = 0;
+        for (int i = 0; i < route[1]; i++)      //From the start to its cell: only exit squares are more than a step away.
+            path[k++] = start - i * width;
+        var cur = first;
+        while (cur != lca)
+        {
+            var p = parent(cur);
+            path[k++] = square(cur);
+            path[k++] = (square(cur) + square(p)) / 2;
+            cur = p;
+        }
+        path[k] = square(lca);
+        var m = path.length - 1;
+        for (int i = 0; i < route[3]; i++)
+            path[m--] = end - i * width;
+        cur = last;
+        while (cur != lca)
+        {
+            var p = parent(cur);
+            path[m--] = square(cur);
+            path[m--] = (square(cur) + square(p)) / 2;
+            cur = p;
+        }
+        return path;
+    }
+
+    public int[] path(int startRow, int startColumn, int endRow, int endColumn)
+    {
+        return path(startRow * width + startColumn, endRow * width + endColumn);
+    }
+
+    private int[] check(int index)
+    {
+        var anchors = new int[4];
+        if (!locate(index, anchors))
+            throw new IllegalArgumentException("The square " + index / width + "," + index % width + " is not a passage");
+        return anchors;
+    }
+
+    /**
+     * Writes the index: the root cell and the number of cells as
+     * little-endian ints, the parent directions packed 2 bits per cell into
+     * little-endian longs and finally the CRC32 of all of them.
+     */
+    public void write(WritableByteChannel channel) throws IOException
+    {
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        var crc = new CRC32();
+        buffer.putInt(root).putInt(depth.length);
+        for (var word : directions)
+        {
+            if (!buffer.hasRemaining())
+                flush(channel, buffer, crc);
+            buffer.putLong(word);
+        }
+        flush(channel, buffer, crc);
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private static void flush(WritableByteChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException
+    {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Reads an index written by {@link #write(WritableByteChannel)} for the
+     * given grid and rebuilds the depths and the jumps.
+     *
+     * @throws IllegalArgumentException if the data does not match the grid
+     *                                  or the checksum
+     */
+    public static TreeIndex read(ReadableByteChannel channel, Grid grid) throws IOException
+    {
+        var height = grid.getHeight();
+        var width = grid.getWidth();
+        var cells = ((height - 1) / 2) * ((width - 1) / 2);
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        var crc = new CRC32();
+        buffer.limit(8);
+        fill(channel, buffer);
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        var root = buffer.getInt();
+        var size = buffer.getInt();
+        if (size != cells || root < 0 || root >= size)
+            throw new IllegalArgumentException("Cannot load the maze. The tree index does not match the maze");
+        var directions = new long[(int) ((2L * cells + 63) >>> 6)];
+        var remaining = 8L * directions.length;
+        buffer.clear().limit(0);
+        for (int i = 0; i < directions.length; i++)
+        {
+            if (!buffer.hasRemaining())
+            {
+                buffer.clear().limit((int) Math.min(BUFFER_SIZE, remaining));
+                fill(channel, buffer);
+                buffer.flip();
+                crc.update(buffer.duplicate());
+                remaining -= buffer.limit();
+            }
+            directions[i] = buffer.getLong();
+        }
+        buffer.clear().limit(8);
+        fill(channel, buffer);
+        buffer.flip();
+        if (buffer.getLong() != crc.getValue())
+            throw new IllegalArgumentException("Cannot load the maze. The checksum of the tree index does not match");
+        var index = new TreeIndex(height, width, root, directions);
+        for (int cell = 0; cell < cells; cell++)        //Every edge of the tree must be a passage of the maze.
+        {
+            if (cell == root)
+                continue;
+            var link = (index.square(cell) + index.square(index.parent(cell))) / 2;
+            if (grid.isWall(link / width, link % width))
+                throw new IllegalArgumentException("Cannot load the maze. The tree index does not match the maze");
+        }
+        return index;
+    }
+
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+                throw new IllegalArgumentException("Cannot load the maze. The file is truncated");
+        }
+    }
+}
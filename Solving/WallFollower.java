@@ -0,0 +1,96 @@
+package Solving;
+
+import Maze.Grid;
+
+import java.util.Arrays;
+
+public class WallFollower extends GridSearch        //Walks keeping a hand on the right wall and erases the loops of the walk, so the result
+{                                                   //is a simple path. In a perfect maze it is the escape path. The rule only finds the end
+                                                    //if the end touches the same wall as the start, like an exit on the outer wall does;
+                                                    //otherwise the walk returns to the start and an empty path is returned.
+    private final int[] position;       //The position of a square in the current path or NONE.
+    private int[] path = new int[64];
+
+    public WallFollower(Grid grid)
+    {
+        super(grid);
+        position = new int[size];
+        Arrays.fill(position, NONE);
+    }
+
+    @Override
+    public int[] search(int start, int end)
+    {
+        var length = 0;
+        length = push(start, length);
+        var heading = initialHeading(start);
+        if (heading == NONE)
+            return start == end ? Arrays.copyOf(path, 1) : finish(0, length);
+        var firstDirection = nextDirection(start, heading);
+        var cur = start;
+        long steps = 0;
+        while (cur != end)
+        {
+            var direction = nextDirection(cur, heading);
+            if (cur == start && steps > 0 && direction == firstDirection)
+                return finish(0, length);                   //The walk is back where it began and would repeat itself.
+            heading = direction;
+            cur = neighbor(cur, direction);
+            if (position[cur] != NONE)
+            {
+                while (length - 1 > position[cur])          //Erases the loop back to the earlier visit.
+                    position[path[--length]] = NONE;
+            }
+            else
+            {
+                length = push(cur, length);
+            }
+            if (++steps > 4L * size)
+                return finish(0, length);
+        }
+        return finish(length, length);
+    }
+
+    private int nextDirection(int cur, int heading)     //Tries to turn right, to go straight, to turn left and to go back, in this order.
+    {
+        for (int turn = 1; turn >= -2; turn--)
+        {
+            var direction = (heading + turn + 4) & 3;
+            if (neighbor(cur, direction) != NONE)
+                return direction;
+        }
+        return NONE;
+    }
+
+    private int initialHeading(int start)   //Faces the start along the wall: the first direction that is open after a wall on the right.
+    {
+        for (int direction = 0; direction < 4; direction++)
+        {
+            if (neighbor(start, direction) != NONE && neighbor(start, (direction + 1) & 3) == NONE)
+                return (direction + 1) & 3;
+        }
+        for (int direction = 0; direction < 4; direction++)
+        {
+            if (neighbor(start, direction) != NONE)
+                return direction;
+        }
+        return NONE;
+    }
+
+    private int push(int index, int length)
+    {
+        if (length == path.length)
+            path = Arrays.copyOf(path, length * 2);
+        position[index] = length;
+        path[length] = index;
+        return length + 1;
+    }
+
+    private int[] finish(int resultLength, int length)     //Returns the first resultLength squares of the path and clears the positions.
+    {
+        var result = Arrays.copyOf(path, resultLength);
+        for (int i = 0; i < length; i++)
+            position[path[i]] = NONE;
+        return result;
+    }
+}
@@ -1,11 +1,39 @@
 package Start;
 
+import Interface.Batch;
 import Interface.Console;
+import Interface.Server;
+import Metrics.MazeMetrics;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class Main 
 {
-    public static void main(String[] args) 
+    /**
+     * Starts the interactive console, or with
+     * {@code --server [port] [directory]} a headless HTTP service that
+     * saves mazes into the directory ({@code mazes} by default; run it with
+     * {@code -Dsun.net.httpserver.nodelay=true}, see {@link Server}), or with
+     * {@code --batch name=value...} a batch generation described in
+     * {@link Batch}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
     {
+        MazeMetrics.register();
+        if (args.length > 0 && args[0].equals("--server"))
+        {
+            var port = args.length > 1 ? Integer.parseInt(args[1]) : Server.DEFAULT_PORT;
+            var directory = Paths.get(args.length > 2 ? args[2] : "mazes");
+            new Server(port, directory).start();
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--batch"))
+        {
+            new Batch(Arrays.copyOfRange(args, 1, args.length)).run();
+            return;
+        }
         new Console().start();
     }
 }
@@ -0,0 +1,190 @@
+package Tests;
+
+import Generation.DisjointSet;
+import Generation.TiledPassageTree;
+import Maze.Grid;
+import Maze.Model;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static Tests.SelfCheck.expect;
+
+/**
+ * Checks of the generators and of the structures they are built on.
+ */
+class GenerationChecks
+{
+    private static final int STRESS_SIZE = 10_000_000;     //Deep enough to overflow the stack of a recursive find.
+
+    static void register(SelfCheck suite)
+    {
+        suite.add("disjoint set matches a reference", GenerationChecks::disjointSetReference);
+        suite.add("disjoint set binomial stress", GenerationChecks::disjointSetBinomial);
+        suite.add("disjoint set chain stress", GenerationChecks::disjointSetChain);
+        suite.add("tiled maze does not depend on tiles", GenerationChecks::tiledIndependentOfTiles);
+        suite.add("tile boundaries have many passages", GenerationChecks::tileBoundaries);
+    }
+
+    private static void disjointSetReference()      //Random unions against a labelling that is relabelled on every merge.
+    {
+        var random = new Random(6);
+        var size = 2000;
+        var set = new DisjointSet(size);
+        var label = new int[size];
+        for (int i = 0; i < size; i++)
+            label[i] = i;
+        var subsets = size;
+        for (int k = 0; k < 5000; k++)
+        {
+            var first = random.nextInt(size);
+            var second = random.nextInt(size);
+            var merged = label[first] != label[second];
+            expect(set.union(first, second) == merged, "union(" + first + ", " + second + ") returns " + !merged);
+            if (merged)
+            {
+                var old = label[second];
+                for (int i = 0; i < size; i++)
+                {
+                    if (label[i] == old)
+                        label[i] = label[first];
+                }
+                subsets--;
+            }
+            expect(set.getSize() == subsets, "There are " + set.getSize() + " subsets instead of " + subsets);
+            var probe = random.nextInt(size);
+            expect((set.find(probe) == set.find(first)) == (label[probe] == label[first]), "find disagrees for " + probe);
+        }
+    }
+
+    private static void disjointSetBinomial()       //Merges equal-rank trees level by level, so the trees reach the maximal rank
+    {                                               //and every find from a leaf walks the longest possible path.
+        var set = new DisjointSet(STRESS_SIZE);
+        for (long step = 1; step < STRESS_SIZE; step *= 2)
+        {
+            for (long i = 0; i + step < STRESS_SIZE; i += 2 * step)
+                set.union((int) (i + step), (int) i);
+        }
+        expectConnected(set);
+    }
+
+    private static void disjointSetChain()          //Links every element to the next one in reverse order.
+    {
+        var set = new DisjointSet(STRESS_SIZE);
+        for (int i = STRESS_SIZE - 1; i > 0; i--)
+            set.union(i - 1, i);
+        expectConnected(set);
+    }
+
+    private static void tiledIndependentOfTiles()   //The tiled maze is the one spanning tree of the edge weights.
+    {
+        var pool = new ForkJoinPool(3);
+        try
+        {
+            for (var size : new int[][]{{3, 3}, {4, 6}, {101, 57}, {501, 502}})
+            {
+                var whole = new Model(size[0], size[1], new TiledPassageTree(size[0], size[1], 5, Math.max(size[0], size[1]), pool));
+                expect(perfect(whole), "The tiled maze " + size[0] + "x" + size[1] + " is not perfect");
+                for (var tileSize : new int[]{1, 7, 32, 256})
+                {
+                    var tiled = new Model(size[0], size[1], new TiledPassageTree(size[0], size[1], 5, tileSize, pool));
+                    expect(tiled.export().equals(whole.export()),
+                           "The tiled maze " + size[0] + "x" + size[1] + " changes with tiles of " + tileSize);
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the passages across every boundary between two neighbouring
+     * tiles. A maze without seams crosses a boundary about as often as any
+     * other line of the same length, so a boundary without a passage or
+     * with a single one must be rare.
+     */
+    private static void tileBoundaries()
+    {
+        var tileSize = 32;
+        var size = 32 * tileSize * 2 + 1;       //32x32 tiles of cells.
+        var maze = new Model(size, size, new TiledPassageTree(size, size, 11, tileSize, ForkJoinPool.commonPool()));
+        var grid = maze.getGrid();
+        var boundaries = 0;
+        var narrow = 0;                         //Boundaries with at most one passage.
+        long passages = 0;
+        for (int tileRow = 0; tileRow < 32; tileRow++)
+        {
+            for (int tileColumn = 0; tileColumn < 32; tileColumn++)
+            {
+                for (var vertical : new boolean[]{true, false})
+                {
+                    if (vertical ? tileColumn == 31 : tileRow == 31)
+                        continue;
+                    var crossings = 0;
+                    for (int k = 0; k < tileSize; k++)
+                    {
+                        var cellRow = tileRow * tileSize + k;
+                        var cellColumn = tileColumn * tileSize + k;
+                        var open = vertical
+                            ? !grid.isWall(2 * cellRow + 1, 2 * (tileColumn + 1) * tileSize)
+                            : !grid.isWall(2 * (tileRow + 1) * tileSize, 2 * cellColumn + 1);
+                        if (open)
+                            crossings++;
+                    }
+                    boundaries++;
+                    passages += crossings;
+                    if (crossings <= 1)
+                        narrow++;
+                }
+            }
+        }
+        var average = passages / (double) boundaries;
+        expect(average > 4, "A tile boundary has " + average + " passages on average");
+        expect(narrow * 50 < boundaries, narrow + " of " + boundaries + " tile boundaries have at most one passage");
+    }
+
+    private static boolean perfect(Model maze)      //Counts the passages between cells: a spanning tree of the cells has cells - 1.
+    {
+        var grid = maze.getGrid();
+        var rows = (grid.getHeight() - 1) / 2;
+        var columns = (grid.getWidth() - 1) / 2;
+        long links = 0;
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < columns; j++)
+            {
+                if (j > 0 && !grid.isWall(2 * i + 1, 2 * j))
+                    links++;
+                if (i > 0 && !grid.isWall(2 * i, 2 * j + 1))
+                    links++;
+            }
+        }
+        return links == (long) rows * columns - 1 && reachesAll(grid, rows, columns);
+    }
+
+    private static boolean reachesAll(Grid grid, int rows, int columns)
+    {
+        var set = new DisjointSet(rows * columns);
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < columns; j++)
+            {
+                if (j > 0 && !grid.isWall(2 * i + 1, 2 * j))
+                    set.union(i * columns + j, i * columns + j - 1);
+                if (i > 0 && !grid.isWall(2 * i, 2 * j + 1))
+                    set.union(i * columns + j, (i - 1) * columns + j);
+            }
+        }
+        return set.getSize() == 1;
+    }
+
+    private static void expectConnected(DisjointSet set)
+    {
+        expect(set.getSize() == 1, set.getSize() + " subsets left");
+        var root = set.find(0);
+        for (int i = STRESS_SIZE - 1; i >= 0; i--)
+            expect(set.find(i) == root, "The element " + i + " is not connected");
+    }
+}
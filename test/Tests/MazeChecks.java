@@ -0,0 +1,318 @@
+package Tests;
+
+import Generation.ChunkedPassageTree;
+import Generation.Eller;
+import Maze.Cell;
+import Maze.Grid;
+import Maze.Model;
+import Maze.Terrain;
+import Maze.Viewport;
+import Solving.Strategy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static Tests.SelfCheck.expect;
+
+/**
+ * Checks of the mazes themselves and of their save formats.
+ */
+class MazeChecks
+{
+    static void register(SelfCheck suite)
+    {
+        suite.add("binary round trip", MazeChecks::binaryRoundTrip);
+        suite.add("binary round trip keeps the tree index", MazeChecks::treeIndexRoundTrip);
+        suite.add("binary header is validated", MazeChecks::binaryHeaderValidated);
+        suite.add("text round trip", MazeChecks::textRoundTrip);
+        suite.add("tiled round trip and regions", MazeChecks::tiledRoundTrip);
+        suite.add("terrain round trip", MazeChecks::terrainRoundTrip);
+        suite.add("virtual maze equals materialized", MazeChecks::virtualEqualsMaterialized);
+        suite.add("solutions are cached overlays", MazeChecks::solutionOverlay);
+        suite.add("mapped maze equals Eller", MazeChecks::mappedEqualsEller);
+    }
+
+    private static void binaryRoundTrip() throws IOException
+    {
+        for (var size : new int[][]{{3, 3}, {4, 5}, {1001, 777}})
+        {
+            var maze = new Model(size[0], size[1], 3L);
+            var file = temporary(Model.BINARY_EXTENSION);
+            try
+            {
+                maze.save(file);
+                expect(Model.load(file).export().equals(maze.export()), "The binary file does not load back");
+                expect(Model.open(file).export().equals(maze.export()), "The binary file does not open mapped");
+            }
+            finally
+            {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void treeIndexRoundTrip() throws IOException
+    {
+        var maze = new Model(1001, 777, 3L);
+        var index = maze.getTreeIndex();
+        var file = temporary(Model.BINARY_EXTENSION);
+        try
+        {
+            maze.save(file);
+            var loaded = Model.load(file);
+            expect(loaded.hasTreeIndex(), "The tree index is not loaded");
+            var random = new Random(1);
+            for (int i = 0; i < 1000; i++)
+            {
+                var first = cell(maze, random);
+                var second = cell(maze, random);
+                expect(loaded.getTreeIndex().distance(first, second) == index.distance(first, second),
+                       "The loaded tree index gives another distance");
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void binaryHeaderValidated() throws IOException
+    {
+        var file = temporary(Model.BINARY_EXTENSION);
+        try
+        {
+            new Model(21, 31, 5L).save(file);
+            var bytes = Files.readAllBytes(file);
+            for (var offset : new int[]{20, 24, 28, 32})               //The entrance and the exit.
+            {
+                var corrupt = bytes.clone();
+                var header = ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(offset, header.getInt(offset) + 2);
+                Files.write(file, corrupt);
+                expect(rejected(file), "A moved entrance or exit at offset " + offset + " is accepted");
+            }
+            var corrupt = bytes.clone();
+            corrupt[corrupt.length - 1] ^= 1;
+            Files.write(file, corrupt);
+            expect(rejected(file), "A corrupted body is accepted");
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void textRoundTrip() throws IOException
+    {
+        for (var size : new int[][]{{3, 3}, {4, 5}, {101, 120}, {40001, 3}})
+        {
+            var maze = new Model(size[0], size[1], 9L);
+            var text = maze.export();
+            expect(Model.load(text).export().equals(text), "The exported text does not load back");
+            var file = temporary(".txt");
+            try
+            {
+                maze.save(file);
+                expect(Files.readString(file, StandardCharsets.US_ASCII).equals(text), "The saved text differs from the export");
+                expect(Model.load(file).export().equals(text), "The text file does not load back");
+            }
+            finally
+            {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void tiledRoundTrip() throws IOException
+    {
+        var maze = new Model(1001, 777, 3L);
+        var file = temporary(Model.TILED_EXTENSION);
+        try
+        {
+            maze.save(file);
+            expect(Model.load(file).export().equals(maze.export()), "The tiled file does not load back");
+            var random = new Random(1);
+            for (int k = 0; k < 100; k++)
+            {
+                var top = random.nextInt(1001);
+                var left = random.nextInt(777);
+                var region = Model.loadRegion(file, top, left, 1 + random.nextInt(600), 1 + random.nextInt(600));
+                var expected = Viewport.of(maze.getGrid(), top, left, region.getHeight(), region.getWidth());
+                expect(region.getHeight() == expected.getHeight() && region.getWidth() == expected.getWidth(),
+                       "The region at " + top + "," + left + " has another size");
+                for (int i = 0; i < region.getHeight(); i++)
+                {
+                    for (int j = 0; j < region.getWidth(); j++)
+                        expect(region.isWall(i, j) == maze.getGrid().isWall(top + i, left + j),
+                               "The region at " + top + "," + left + " differs");
+                }
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void terrainRoundTrip() throws IOException
+    {
+        var maze = new Model(41, 45, 5L).withTerrain(Terrain.random(41, 45, 5, 4, 15));
+        maze.getTreeIndex();
+        var file = temporary(Model.BINARY_EXTENSION);
+        try
+        {
+            maze.save(file);
+            var loaded = Model.load(file);
+            expect(loaded.getTerrain() != null && loaded.hasTreeIndex(), "The terrain or the tree index is lost");
+            expect(loaded.export().equals(maze.export()), "The loaded maze differs");
+            expect(sameCosts(loaded.getGrid(), maze.getGrid()), "The loaded costs differ");
+            try
+            {
+                Model.open(file);
+                expect(false, "A weighted maze is opened without its terrain");
+            }
+            catch (IllegalArgumentException e)
+            {
+                //Mapping would drop the terrain.
+            }
+            new Model(41, 45, 5L).save(file);
+            expect(Model.load(file).getTerrain() == null, "A maze without a terrain loads with one");
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+        for (var extension : new String[]{".txt", Model.TILED_EXTENSION})
+        {
+            var lossy = temporary(extension);
+            try
+            {
+                Files.writeString(lossy, "kept");
+                try
+                {
+                    maze.save(lossy);
+                    expect(false, "A weighted maze is saved in " + extension);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    expect(Files.readString(lossy).equals("kept"), "A rejected save touches the file");
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists(lossy);
+            }
+        }
+    }
+
+    private static void virtualEqualsMaterialized()
+    {
+        for (var size : new int[][]{{3, 3}, {4, 4}, {10, 11}, {101, 57}, {300, 301}, {513, 1025}})
+        {
+            for (var chunkSize : new int[]{2, 3, 16, 128})
+            {
+                var virtual = Model.virtual(size[0], size[1], 77, chunkSize, 3);
+                var generated = new Model(size[0], size[1], new ChunkedPassageTree(size[0], size[1], 77, chunkSize));
+                expect(virtual.export().equals(generated.export()),
+                       "The virtual maze " + size[0] + "x" + size[1] + " with chunks of " + chunkSize + " differs");
+            }
+        }
+    }
+
+    private static void solutionOverlay()
+    {
+        var maze = new Model(41, 53, 11L);
+        var text = maze.export();
+        var solution = maze.solve(Strategy.BFS);
+        expect(!solution.isEmpty(), "The maze has no escape");
+        expect(maze.solve(Strategy.BFS) == solution, "A repeated solve is not cached");
+        expect(maze.export().equals(text), "Solving changes the maze");
+        var inside = new Cell(1, 1, Cell.Type.PASSAGE);
+        for (var outside : new int[][]{{-1, 1}, {41, 1}, {1, -1}, {1, 53}, {0, 1000}})
+        {
+            var cell = new Cell(outside[0], outside[1], Cell.Type.PASSAGE);
+            expect(rejectedSolve(maze, cell, inside) && rejectedSolve(maze, inside, cell),
+                   "The square " + outside[0] + "," + outside[1] + " outside of the maze is accepted");
+        }
+        maze.discard();
+    }
+
+    private static void mappedEqualsEller() throws IOException
+    {
+        for (var size : new int[][]{{3, 3}, {4, 5}, {101, 121}, {100, 120}})
+        {
+            var text = new ByteArrayOutputStream();
+            new Eller(size[0], size[1], 9).write(text);
+            var file = temporary(Model.BINARY_EXTENSION);
+            try
+            {
+                var mapped = Model.create(file, size[0], size[1], 9L);
+                expect(mapped.export().equals(Model.load(text.toString(StandardCharsets.US_ASCII)).export()),
+                       "The mapped maze " + size[0] + "x" + size[1] + " differs from the one Eller writes");
+                expect(Model.load(file).export().equals(mapped.export()), "The mapped file does not load back");
+                expect(Model.open(file).export().equals(mapped.export()), "The mapped file does not open again");
+            }
+            finally
+            {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static boolean rejectedSolve(Model maze, Cell start, Cell end)
+    {
+        try
+        {
+            maze.solve(start, end, Strategy.BFS);
+            return false;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return true;
+        }
+    }
+
+    private static boolean rejected(Path file) throws IOException
+    {
+        try
+        {
+            Model.load(file);
+            return false;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return true;
+        }
+    }
+
+    private static boolean sameCosts(Grid first, Grid second)
+    {
+        for (int i = 0; i < first.getHeight(); i++)
+        {
+            for (int j = 0; j < first.getWidth(); j++)
+            {
+                if (!first.isWall(i, j) && first.getCost(i, j) != second.getCost(i, j))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    static int cell(Model maze, Random random)          //The index of a random cell, a square with both coordinates odd.
+    {
+        var row = 2 * random.nextInt((maze.getHeight() - 1) / 2) + 1;
+        var column = 2 * random.nextInt((maze.getWidth() - 1) / 2) + 1;
+        return row * maze.getWidth() + column;
+    }
+
+    private static Path temporary(String extension) throws IOException
+    {
+        return Files.createTempFile("maze-check", extension);
+    }
+}
@@ -0,0 +1,78 @@
+package Tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the checks of the project without a test framework and exits with a
+ * non-zero status if any of them fails, so a build script can run it after
+ * compiling the main and the test sources together:
+ * {@code java -cp out Tests.SelfCheck [name...]}. With names only the checks
+ * whose names contain one of them run.
+ */
+public class SelfCheck
+{
+    interface Check
+    {
+        void run() throws Exception;
+    }
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Check> checks = new ArrayList<>();
+
+    void add(String name, Check check)
+    {
+        names.add(name);
+        checks.add(check);
+    }
+
+    static void expect(boolean condition, String message)      //Fails the running check.
+    {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+
+    public static void main(String[] args)
+    {
+        var suite = new SelfCheck();
+        GenerationChecks.register(suite);
+        MazeChecks.register(suite);
+        SolverChecks.register(suite);
+
+        var failures = 0;
+        var run = 0;
+        for (int i = 0; i < suite.checks.size(); i++)
+        {
+            var name = suite.names.get(i);
+            if (!selected(name, args))
+                continue;
+            run++;
+            var begin = System.nanoTime();
+            try
+            {
+                suite.checks.get(i).run();
+                System.out.printf("ok     %-40s %8.1f ms%n", name, (System.nanoTime() - begin) / 1e6);
+            }
+            catch (Exception | AssertionError e)
+            {
+                failures++;
+                System.out.printf("FAILED %-40s %s%n", name, e);
+            }
+        }
+        System.out.println(run + " checks, " + failures + " failed");
+        if (failures > 0 || run == 0)
+            System.exit(1);
+    }
+
+    private static boolean selected(String name, String[] filters)
+    {
+        if (filters.length == 0)
+            return true;
+        for (var filter : filters)
+        {
+            if (name.contains(filter))
+                return true;
+        }
+        return false;
+    }
+}
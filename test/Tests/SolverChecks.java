@@ -0,0 +1,312 @@
+package Tests;
+
+import Generation.Braider;
+import Generation.PassageTree;
+import Maze.Grid;
+import Maze.Model;
+import Maze.Terrain;
+import Solving.BatchSolver;
+import Solving.CompactPath;
+import Solving.ParallelBfs;
+import Solving.Query;
+import Solving.Strategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static Tests.SelfCheck.expect;
+
+/**
+ * Checks that the solvers agree with each other and with the batch and
+ * index APIs built on top of them.
+ */
+class SolverChecks
+{
+    private static final Strategy[] SHORTEST = {                //The strategies that find a path with the fewest steps in any maze.
+        Strategy.A_STAR, Strategy.A_STAR_BUCKETS, Strategy.DIAL, Strategy.BFS, Strategy.BIDIRECTIONAL_BFS,
+        Strategy.PARALLEL_BIDIRECTIONAL_BFS, Strategy.PARALLEL_BFS};
+    private static final Strategy[] WEIGHTED = {Strategy.A_STAR, Strategy.A_STAR_NODES, Strategy.DIAL};
+
+    static void register(SelfCheck suite)
+    {
+        suite.add("batch solver agrees with single queries", SolverChecks::batchSolver);
+        suite.add("tree index agrees with BFS", SolverChecks::treeIndex);
+        suite.add("solvers agree in perfect mazes", SolverChecks::perfectMazes);
+        suite.add("two-threaded search finds shortest paths", SolverChecks::parallelBidirectional);
+        suite.add("parallel BFS agrees with BFS", SolverChecks::parallelBfs);
+        suite.add("compact path round trip", SolverChecks::compactPath);
+        suite.add("BFS agrees in braided mazes", SolverChecks::braidedMazes);
+        suite.add("solver costs agree in weighted mazes", SolverChecks::weightedMazes);
+    }
+
+    private static void batchSolver()
+    {
+        var maze = new Model(101, 121, 13);
+        var grid = maze.getGrid();
+        var random = new Random(13);
+        var queries = new ArrayList<Query>();
+        for (int k = 0; k < 200; k++)
+        {
+            var start = passage(grid, random);
+            var end = passage(grid, random);
+            queries.add(new Query(start / 121, start % 121, end / 121, end % 121));
+        }
+        try (var batch = new BatchSolver(grid, 3))
+        {
+            var paths = batch.solve(queries);
+            for (int k = 0; k < paths.length; k++)
+            {
+                var query = queries.get(k);
+                var expected = Strategy.A_STAR.solve(grid, query.getStartRow() * 121 + query.getStartColumn(),
+                                                     query.getEndRow() * 121 + query.getEndColumn());
+                expect(Arrays.equals(expected, paths[k].toIndices(121)), "The batch finds another path for query " + k);
+            }
+            for (var outside : new int[][]{{-1, 1}, {101, 1}, {1, -1}, {1, 121}, {0, 1000}})
+            {
+                var badEnd = new ArrayList<>(queries);
+                badEnd.add(new Query(1, 1, outside[0], outside[1]));
+                var badStart = new ArrayList<>(queries);
+                badStart.add(0, new Query(outside[0], outside[1], 1, 1));
+                expect(rejected(batch, badEnd) && rejected(batch, badStart),
+                       "The square " + outside[0] + "," + outside[1] + " outside of the maze is accepted");
+            }
+        }
+    }
+
+    private static void treeIndex()
+    {
+        var random = new Random(5);
+        for (var size : new int[][]{{201, 203}, {200, 202}, {31, 30}})
+        {
+            var maze = new Model(size[0], size[1], 7);
+            var grid = maze.getGrid();
+            var index = maze.getTreeIndex();
+            for (int k = 0; k < 500; k++)
+            {
+                var start = passage(grid, random);
+                var end = passage(grid, random);
+                var expected = Strategy.BFS.solve(grid, start, end);
+                expect(Arrays.equals(expected, index.path(start, end)), "The tree index finds another path");
+                expect(index.distance(start, end) == expected.length - 1, "The tree index gives another distance");
+            }
+        }
+    }
+
+    private static void perfectMazes()       //The path in a perfect maze is unique, so every strategy must return it.
+    {
+        var random = new Random(3);
+        for (var size : new int[][]{{3, 3}, {4, 5}, {21, 40}, {101, 101}, {300, 151}})
+        {
+            var maze = new Model(size[0], size[1], 11);
+            var grid = maze.getGrid();
+            for (int k = 0; k < 20; k++)
+            {
+                var start = k == 0 ? 1 : MazeChecks.cell(maze, random);
+                var end = k == 0 ? maze.getExit().getRow() * size[1] + maze.getExit().getColumn() : MazeChecks.cell(maze, random);
+                var expected = Strategy.BFS.solve(grid, start, end);
+                for (var strategy : Strategy.values())
+                    expect(Arrays.equals(expected, strategy.solve(grid, start, end)),
+                           strategy + " finds another path in " + size[0] + "x" + size[1]);
+            }
+        }
+    }
+
+    private static void parallelBidirectional()     //Loops give the sides several meeting squares, only the best one is a shortest path.
+    {
+        for (long seed = 0; seed < 20; seed++)
+        {
+            var height = 51 + (int) seed % 4;
+            var width = 63 + (int) seed % 3;
+            var maze = new Model(height, width, new Braider(new PassageTree(height, width, seed), height, width, 0.8, seed));
+            var grid = maze.getGrid();
+            var finder = Strategy.PARALLEL_BIDIRECTIONAL_BFS.finder(grid);
+            var random = new Random(seed);
+            for (int k = 0; k < 100; k++)
+            {
+                var start = passage(grid, random);
+                var end = passage(grid, random);
+                var length = Strategy.BFS.solve(grid, start, end).length;
+                var path = finder.search(start, end);
+                expect(path.length == length, "The two-threaded search finds a path of " + path.length + " squares, BFS " + length);
+                expect(valid(grid, path, start, end), "The two-threaded search returns an invalid path");
+            }
+            Thread.currentThread().interrupt();
+            try
+            {
+                finder.search(1, height * width - 2);
+                expect(false, "An interrupted search returns");
+            }
+            catch (IllegalStateException e)
+            {
+                expect(Thread.interrupted(), "The interrupt is lost");
+            }
+            expect(finder.search(1, 1 + width).length == Strategy.BFS.solve(grid, 1, 1 + width).length,
+                   "The search after an interrupt differs");
+        }
+    }
+
+    private static void parallelBfs()       //A fully braided large maze has frontiers wider than one task, so the levels are split.
+    {
+        var pool = new ForkJoinPool(4);
+        try
+        {
+            for (long seed = 0; seed < 3; seed++)
+            {
+                var maze = new Model(801, 801, new Braider(new PassageTree(801, 801, seed), 801, 801, 1, seed));
+                var grid = maze.getGrid();
+                var finder = new ParallelBfs(grid, pool);
+                var random = new Random(seed);
+                for (int k = 0; k < 20; k++)
+                {
+                    var start = passage(grid, random);
+                    var end = passage(grid, random);
+                    var length = Strategy.BFS.solve(grid, start, end).length;
+                    var path = finder.search(start, end);
+                    expect(path.length == length, "The parallel BFS finds a path of " + path.length + " squares, BFS " + length);
+                    expect(valid(grid, path, start, end), "The parallel BFS returns an invalid path");
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    private static void compactPath() throws IOException
+    {
+        var maze = new Model(101, 121, 5);
+        var grid = maze.getGrid();
+        var indices = Strategy.A_STAR.solve(grid, 1, MazeChecks.cell(maze, new Random(1)));
+        var path = CompactPath.of(indices, 121);
+        expect(Arrays.equals(indices, path.toIndices(121)), "The compact path differs");
+        var bytes = new ByteArrayOutputStream();
+        path.writeTo(new DataOutputStream(bytes));
+        var read = CompactPath.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 101, 121);
+        expect(Arrays.equals(indices, read.toIndices(121)), "The read path differs");
+        for (var steps : new int[]{-2, 101 * 121, Integer.MAX_VALUE})
+        {
+            var corrupt = new ByteArrayOutputStream();
+            var out = new DataOutputStream(corrupt);
+            out.writeInt(1);
+            out.writeInt(1);
+            out.writeInt(steps);
+            try
+            {
+                CompactPath.readFrom(new DataInputStream(new ByteArrayInputStream(corrupt.toByteArray())), 101, 121);
+                expect(false, "A path of " + steps + " steps is read");
+            }
+            catch (IllegalArgumentException expected)
+            {
+                //Rejected before the moves are allocated.
+            }
+        }
+    }
+
+    private static void braidedMazes()       //4000 random queries, every strategy that finds shortest paths must match BFS.
+    {
+        var queries = 0;
+        for (long seed = 0; seed < 40; seed++)
+        {
+            var height = 61 + (int) seed % 5;
+            var width = 47 + (int) seed % 3;
+            var maze = new Model(height, width, new Braider(new PassageTree(height, width, seed), height, width, 0.5, seed));
+            var grid = maze.getGrid();
+            var random = new Random(seed);
+            for (int k = 0; k < 100; k++, queries++)
+            {
+                var start = MazeChecks.cell(maze, random);
+                var end = MazeChecks.cell(maze, random);
+                var length = Strategy.BFS.solve(grid, start, end).length;
+                expect(length > 0, "A braided maze is not connected");
+                for (var strategy : SHORTEST)
+                {
+                    var path = strategy.solve(grid, start, end);
+                    expect(path.length == length, strategy + " finds a path of " + path.length + " squares, BFS " + length);
+                    expect(valid(grid, path, start, end), strategy + " returns an invalid path");
+                }
+            }
+        }
+        expect(queries == 4000, "Only " + queries + " queries ran");
+    }
+
+    private static void weightedMazes()
+    {
+        for (long seed = 0; seed < 50; seed++)
+        {
+            var height = 41 + (int) seed % 7;
+            var width = height + 4;
+            var maze = new Model(height, width, new Braider(new PassageTree(height, width, seed), height, width, 0.7, seed))
+                .withTerrain(Terrain.random(height, width, seed, 4, 15));
+            var grid = maze.getGrid();
+            var random = new Random(seed);
+            for (int k = 0; k < 10; k++)
+            {
+                var start = MazeChecks.cell(maze, random);
+                var end = MazeChecks.cell(maze, random);
+                var expected = cost(grid, Strategy.DIAL.solve(grid, start, end));
+                for (var strategy : WEIGHTED)
+                {
+                    var path = strategy.solve(grid, start, end);
+                    expect(valid(grid, path, start, end), strategy + " returns an invalid path");
+                    expect(cost(grid, path) == expected, strategy + " finds a path of cost " + cost(grid, path) + ", DIAL " + expected);
+                }
+            }
+        }
+    }
+
+    private static boolean rejected(BatchSolver batch, List<Query> queries)
+    {
+        try
+        {
+            batch.solve(queries);
+            return false;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return true;
+        }
+    }
+
+    private static boolean valid(Grid grid, int[] path, int start, int end)    //Checks that a path goes between passages one step at a time.
+    {
+        var width = grid.getWidth();
+        if (path.length == 0 || path[0] != start || path[path.length - 1] != end)
+            return false;
+        for (int i = 0; i < path.length; i++)
+        {
+            if (grid.isWall(path[i] / width, path[i] % width))
+                return false;
+            if (i > 0 && Math.abs(path[i] / width - path[i - 1] / width) + Math.abs(path[i] % width - path[i - 1] % width) != 1)
+                return false;
+        }
+        return true;
+    }
+
+    private static long cost(Grid grid, int[] path)         //The sum of the costs of the squares after the start, like Model.getCost.
+    {
+        long cost = 0;
+        for (int i = 1; i < path.length; i++)
+            cost += grid.getCost(path[i] / grid.getWidth(), path[i] % grid.getWidth());
+        return cost;
+    }
+
+    private static int passage(Grid grid, Random random)
+    {
+        while (true)
+        {
+            var row = random.nextInt(grid.getHeight());
+            var column = random.nextInt(grid.getWidth());
+            if (!grid.isWall(row, column))
+                return row * grid.getWidth() + column;
+        }
+    }
+}